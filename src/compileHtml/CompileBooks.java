@@ -0,0 +1,64 @@
+package compileHtml;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import markDownTests.Assets;
+import markDownTests.DocumentProcessor;
+import markDownTests.FragmentCache;
+import markDownTests.HtmlCreator;
+import markDownTests.MarkdownEngine;
+import markDownTests.Metrics;
+import markDownTests.Output;
+import markDownTests.PageTemplate;
+import markDownTests.PerfStore;
+import markDownTests.SiteLayout;
+
+//Builds several guides in one JVM: one markdown engine, one fragment cache and one thread pool for all.
+//  CompileBooks <source> <dest> [<source> <dest> ...]
+//Sources are walked and extracted in parallel, then the pages of all books render on the shared pool;
+//each book is still written in page order. A dest holding a styles.css gets it fingerprinted.
+public class CompileBooks {
+  public record Book(Path source, Path dest){}
+  public static void main(String[] args){
+    if (args.length == 0 || args.length % 2 != 0){
+      throw new IllegalArgumentException("Expected <source> <dest> pairs, got "+List.of(args));
+    }
+    var books= new ArrayList<Book>();
+    for (int i= 0; i < args.length; i += 2){ books.add(new Book(Path.of(args[i]), Path.of(args[i + 1]))); }
+    var engine= MarkdownEngine.standard().withCache(FragmentCache.onDisk(Path.of("tmpOut","htmlCache"), 64L << 20));
+    var layout= PageTemplate.standard();
+    var site=   SiteLayout.valueOf(System.getProperty("html.layout", SiteLayout.flat.name()));
+    var stages= new LinkedHashMap<String,Long>();
+    long start= System.nanoTime();
+    //drivers wait on page futures, so they must not take pool threads
+    try (var pool= Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+         var drivers= Executors.newVirtualThreadPerTaskExecutor()){
+      var chapters= books.stream()
+        .map(b->CompletableFuture.supplyAsync(()->new DocumentProcessor().processFiles(DocumentProcessor.walk(b.source(), ".java")), pool))
+        .toList();
+      var renders= new ArrayList<CompletableFuture<Void>>();
+      for (int i= 0; i < books.size(); i++){
+        var b= books.get(i);
+        var creator= new HtmlCreator(Output.async(Output.dir(b.dest(), true), 2), assets(b.dest()), engine, layout, site);
+        renders.add(chapters.get(i).thenAcceptAsync(cs->creator.generateHtmlPages(cs, pool), drivers));
+      }
+      CompletableFuture.allOf(chapters.toArray(CompletableFuture[]::new)).join();
+      stages.put("books.extract", System.nanoTime() - start);
+      CompletableFuture.allOf(renders.toArray(CompletableFuture[]::new)).join();
+      stages.put("books.total", System.nanoTime() - start);
+    }
+    PerfStore.standard().append("stage", stages);
+    Metrics.global.stages(stages);
+    Metrics.global.export(Path.of("tmpOut","metrics","books.prom"));
+    System.out.println("Done "+books.size()+" books");
+  }
+  static Assets assets(Path dest){
+    return Files.exists(dest.resolve("styles.css")) ? Assets.of(dest, "styles.css").withCriticalCss() : Assets.none();
+  }
+}
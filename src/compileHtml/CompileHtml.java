@@ -2,17 +2,43 @@ package compileHtml;
 
 import java.nio.file.Path;
 import java.io.IOException;
+import java.util.Map;
+import markDownTests.Assets;
 import markDownTests.DocumentProcessor;
+import markDownTests.FragmentCache;
 import markDownTests.HtmlCreator;
+import markDownTests.MarkdownEngine;
+import markDownTests.Metrics;
+import markDownTests.Output;
+import markDownTests.PageTemplate;
+import markDownTests.PerfStore;
+import markDownTests.SiteLayout;
+import markDownTests.SnippetManifest;
+import markDownTests.SourceMap;
 public class CompileHtml {
   public static void main(String[] args) throws IOException{
     Path root=Path.of("C:\\")
       .resolve("Users","Lardo","OneDrive","Documents","GitHub","FearlessTour","src","chaptersOfZeroToHero"); 
     var dest=     //Path.of("htmlOut");
       root.resolve("..").resolve("..").resolve("..").resolve("ZeroToHero").resolve("src").resolve("assetsGuide");
-    var creator=  new HtmlCreator(dest);
-    var chapters= new DocumentProcessor().processFiles(root);
-    creator.generateHtmlPages(chapters);
+    var assets=   Assets.of(dest, "styles.css").withCriticalCss();
+    var files=    args.length == 0 || args[0].isEmpty() ? Output.dir(dest, true) : Output.zip(Path.of(args[0]));
+    var output=   Output.async(files, 4);
+    var engine=   MarkdownEngine.standard().withCache(FragmentCache.onDisk(Path.of("tmpOut","htmlCache"), 64L << 20));
+    var layout=   args.length < 2 ? PageTemplate.standard() : PageTemplate.load(Path.of(args[1]));
+    var site=     SiteLayout.valueOf(System.getProperty("html.layout", SiteLayout.flat.name()));
+    var creator=  new HtmlCreator(output, assets, engine, layout, site);
+    long start=   System.nanoTime();
+    var document= new DocumentProcessor().process(root);
+    long extract= System.nanoTime();
+    creator.generateHtmlPages(document.chapters());
+    long render=  System.nanoTime();
+    SourceMap.of(document).save(SourceMap.standardFile);
+    SnippetManifest.build(root).save(SnippetManifest.standardFile);
+    var stages=   Map.of("html.extract", extract - start, "html.render", render - extract);
+    PerfStore.standard().append("stage", stages);
+    Metrics.global.stages(stages);
+    Metrics.global.export(Path.of("tmpOut","metrics","html.prom"));
     System.out.println("Done");
     }
 }
\ No newline at end of file
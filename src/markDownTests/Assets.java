@@ -0,0 +1,91 @@
+package markDownTests;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+//Static files are published under a content-hashed name, so they can be served as immutable.
+//With criticalSelectors, the matching css rules are inlined and the full stylesheet is deferred.
+public record Assets(Path sourceDir, List<String> files, List<String> criticalSelectors){
+  public Assets{ files= List.copyOf(files); criticalSelectors= List.copyOf(criticalSelectors); }
+  public static Assets none(){ return new Assets(Path.of("."), List.of(), List.of()); }
+  public static Assets of(Path sourceDir, String... files){ return new Assets(sourceDir, List.of(files), List.of()); }
+  public static final List<String> pageSkeleton= List.of(
+    ":root", "html", "body", "#sidebar", ".sidebar-entry", "#content", ".markdown-content");
+  public Assets withCriticalCss(){ return withCriticalCss(pageSkeleton); }
+  public Assets withCriticalCss(List<String> selectors){ return new Assets(sourceDir, files, selectors); }
+
+  public Fingerprints publish(Output output){
+    var renames= new LinkedHashMap<String,String>();
+    var critical= new StringBuilder();
+    for (var f : files){
+      byte[] content= read(sourceDir.resolve(f));
+      var target= fingerprinted(f, Hashes.sha256(content));
+      renames.put(f, target);
+      output.write(target, content);
+      if (f.endsWith(".css") && !criticalSelectors.isEmpty()){
+        critical.append(CriticalCss.extract(new String(content, StandardCharsets.UTF_8), criticalSelectors));
+      }
+    }
+    return new Fingerprints(renames, critical.toString());
+  }
+  static String fingerprinted(String file, String hash){
+    int slash= file.lastIndexOf('/');
+    int dot= file.lastIndexOf('.');
+    var shortHash= hash.substring(0, 10);
+    if (dot <= slash + 1){ return file + "." + shortHash; }
+    return file.substring(0, dot) + "." + shortHash + file.substring(dot);
+  }
+  private static byte[] read(Path p){
+    try { return Files.readAllBytes(p); }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+}
+//Keeps the top level rules mentioning one of the selectors; at-rules stay in the full stylesheet.
+class CriticalCss {
+  static String extract(String css, List<String> selectors){
+    var res= new StringBuilder();
+    for (var rule : rules(stripComments(css))){
+      int open= rule.indexOf('{');
+      var head= rule.substring(0, open);
+      head= head.substring(head.lastIndexOf(';') + 1).trim();
+      if (head.startsWith("@")){ continue; }
+      boolean keep= List.of(head.split(",")).stream()
+        .anyMatch(s->selectors.stream().anyMatch(c->mentions(s.trim(), c)));
+      if (keep){ res.append(head).append(rule.substring(open)).append('\n'); }
+    }
+    return res.toString();
+  }
+  private static boolean mentions(String selector, String critical){
+    int i= selector.indexOf(critical);
+    while (i >= 0){
+      int end= i + critical.length();
+      boolean endsToken= end == selector.length() || !isNameChar(selector.charAt(end));
+      boolean startsToken= i == 0 || !isNameChar(selector.charAt(i - 1)) || !isNameChar(critical.charAt(0));
+      if (endsToken && startsToken){ return true; }
+      i= selector.indexOf(critical, i + 1);
+    }
+    return false;
+  }
+  private static boolean isNameChar(char c){ return Character.isLetterOrDigit(c) || c == '-' || c == '_'; }
+  private static String stripComments(String css){ return css.replaceAll("(?s)/\\*.*?\\*/", ""); }
+  private static List<String> rules(String css){
+    List<String> res= new ArrayList<>();
+    int depth= 0;
+    int start= 0;
+    for (int i= 0; i < css.length(); i++){
+      char c= css.charAt(i);
+      if (c == '{'){ depth++; }
+      if (c == '}' && depth > 0 && --depth == 0){
+        res.add(css.substring(start, i + 1));
+        start= i + 1;
+      }
+    }
+    return res;
+  }
+}
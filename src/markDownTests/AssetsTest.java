@@ -0,0 +1,109 @@
+package markDownTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class AssetsTest {
+  static final String css= """
+    /* body { color: red } */
+    :root { --w: 1px; }
+    html, body { margin: 0; }
+    #sidebar a { color: blue; }
+    #sidebar-toggle { display: none; }
+    .sidebar-entry.active { font-weight: bold; }
+    .sidebar-entry-x { color: green; }
+    p, #content > p { line-height: 1.5; }
+    table { border: 0; }
+    @media (max-width: 600px) { body { margin: 1em; } }
+    tbody { border: 1px; }
+    """;
+  //The rules of css that Assets.pageSkeleton inlines.
+  static final String skeletonRules= """
+    :root{ --w: 1px; }
+    html, body{ margin: 0; }
+    #sidebar a{ color: blue; }
+    .sidebar-entry.active{ font-weight: bold; }
+    p, #content > p{ line-height: 1.5; }
+    """;
+  static void write(Path p, String text){
+    try { Files.createDirectories(p.getParent()); Files.writeString(p, text); }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  static String read(Path p){
+    try { return Files.readString(p); }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  static List<Chapter> corpus(){ return SiteLayoutTest.corpus(2, 2); }
+
+  //The name depends only on the content, so unchanged assets keep their cached url across builds.
+  @Test void fingerprintedNamesAreStable(){
+    try (var tmp= TempDir.create("assets")){
+      write(tmp.resolve("src/styles.css"), css);
+      var first= Assets.of(tmp.resolve("src"), "styles.css").publish(Output.dir(tmp.resolve("a"))).renames();
+      var again= Assets.of(tmp.resolve("src"), "styles.css").publish(Output.dir(tmp.resolve("b"))).renames();
+      assertEquals(first, again);
+      var name= first.get("styles.css");
+      assertEquals(Assets.fingerprinted("styles.css", Hashes.sha256(css)), name);
+      assertTrue(name.matches("styles\\.[0-9a-f]{10}\\.css"), name);
+      assertEquals(css, read(tmp.resolve("a").resolve(name)));
+      write(tmp.resolve("src/styles.css"), css + "p { margin: 0; }\n");
+      assertTrue(!name.equals(Assets.of(tmp.resolve("src"), "styles.css").publish(Output.dir(tmp.resolve("c"))).renames().get("styles.css")));
+    }
+    assertEquals("img/logo.0123456789.png", Assets.fingerprinted("img/logo.png", "0123456789abcdef"));
+    assertEquals("v1.2/LICENSE.0123456789", Assets.fingerprinted("v1.2/LICENSE", "0123456789abcdef"));
+    assertEquals(".nojekyll.0123456789", Assets.fingerprinted(".nojekyll", "0123456789abcdef"));
+  }
+  //Whole selector tokens only, comments and at-rules left out, the rule kept with all its selectors.
+  @Test void criticalRulesAreTheSkeletonOnes(){
+    try (var tmp= TempDir.create("assets")){
+      write(tmp.resolve("src/styles.css"), css);
+      var assets= Assets.of(tmp.resolve("src"), "styles.css");
+      assertEquals("", assets.publish(Output.dir(tmp.resolve("a"))).criticalCss());
+      assertEquals(skeletonRules, assets.withCriticalCss().publish(Output.dir(tmp.resolve("b"))).criticalCss());
+      assertEquals("table{ border: 0; }\n", assets.withCriticalCss(List.of("table")).publish(Output.dir(tmp.resolve("c"))).criticalCss());
+    }
+  }
+  @Test void flatPagesLinkTheFingerprintedStylesheet(){ linksTheFingerprintedStylesheet(SiteLayout.flat, ""); }
+  @Test void nestedPagesLinkTheFingerprintedStylesheet(){ linksTheFingerprintedStylesheet(SiteLayout.nested, "../"); }
+  static void linksTheFingerprintedStylesheet(SiteLayout site, String root){
+    try (var tmp= TempDir.create("assets")){
+      write(tmp.resolve("src/styles.css"), css);
+      var out= tmp.resolve("out");
+      var assets= Assets.of(tmp.resolve("src"), "styles.css");
+      new HtmlCreator(Output.dir(out), assets, MarkdownEngine.standard(), PageTemplate.standard(), site).generateHtmlPages(corpus());
+      var name= Assets.fingerprinted("styles.css", Hashes.sha256(css));
+      assertEquals(css, read(out.resolve(name)));
+      var pages= SiteLayoutTest.pages(out);
+      assertEquals(4, pages.size());
+      for (var p : pages){
+        var html= read(out.resolve(p));
+        assertTrue(html.contains("<link rel=\"stylesheet\" href=\""+root+name+"\">"), p);
+        assertTrue(!html.contains("styles.css\""), p);
+        assertTrue(!html.contains("{{root}}"), p);
+      }
+    }
+  }
+  @Test void criticalCssIsInlinedInEveryPage(){
+    try (var tmp= TempDir.create("assets")){
+      write(tmp.resolve("src/styles.css"), css);
+      var out= tmp.resolve("out");
+      var assets= Assets.of(tmp.resolve("src"), "styles.css").withCriticalCss();
+      new HtmlCreator(Output.dir(out), assets, MarkdownEngine.standard(), PageTemplate.standard(), SiteLayout.nested).generateHtmlPages(corpus());
+      var name= Assets.fingerprinted("styles.css", Hashes.sha256(css));
+      for (var p : SiteLayoutTest.pages(out)){
+        var html= read(out.resolve(p));
+        assertTrue(html.contains("<style>"+skeletonRules+"</style>"), p);
+        assertTrue(html.contains("<link rel=\"preload\" href=\"../"+name+"\" as=\"style\""), p);
+        assertTrue(!html.contains("#sidebar-toggle"), p);
+      }
+    }
+  }
+}
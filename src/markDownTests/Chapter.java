@@ -3,9 +3,23 @@ package markDownTests;
 import java.util.ArrayList;
 import java.util.List;
 
-record Chapter(String title, List<Section> sections) {
-  public Chapter(String title){ this(title, new ArrayList<>()); }
-  record Section(String title, List<String> lines) {
-    public Section(String title){ this(title, new ArrayList<>()); }
+//Immutable: documents built from the same sources share their chapters.
+public record Chapter(String title, List<Section> sections) {
+  public Chapter{ sections= List.copyOf(sections); }
+  public record Section(String title, List<String> lines) {
+    public Section{ lines= List.copyOf(lines); }
   }
-}
\ No newline at end of file
+  //This chapter continued by a later file: lines go to the last section, then the new sections follow.
+  Chapter continued(List<String> lines, List<Section> more){
+    var res= new ArrayList<>(sections);
+    if (!lines.isEmpty()){
+      if (res.isEmpty()){ throw new IllegalArgumentException("Text before the first "+TextTag.Section.token()+" of chapter "+title); }
+      var last= res.removeLast();
+      var merged= new ArrayList<>(last.lines());
+      merged.addAll(lines);
+      res.add(new Section(last.title(), merged));
+    }
+    res.addAll(more);
+    return new Chapter(title, res);
+  }
+}
@@ -0,0 +1,79 @@
+package markDownTests;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//The chapters of a book, and for each source file the part of them extracted from it.
+//A file without --CHAPTER-- (or --SECTION--) continues the chapter (or section) of the file before,
+//so the chapters are assembled from the parts in file order.
+//Immutable: update and patch return a new document sharing the parts and chapters of unchanged files.
+//Parts are keyed by the absolute normal path, so "src/A.java" and "./src/../src/A.java" are the same file.
+public record Document(List<Part> parts, List<Chapter> chapters){
+  public Document{ parts= List.copyOf(parts); chapters= List.copyOf(chapters); }
+  public static final Document empty= new Document(List.of(), List.of());
+  static final Metrics.Counter partsReused= Metrics.global.counter("docs_parts_reused_total", "Source files whose extracted part was reused");
+  //leadLines and leadSections continue what the previous file left open.
+  //sectionLines are the source lines of the sections started here, leadSections first; see SourceMap.
+  public record Part(Path file, String hash, List<String> leadLines, List<Chapter.Section> leadSections, List<Chapter> chapters,
+      List<Lines> sectionLines, List<Snippet> snippets){
+    public Part{
+      file= key(file); leadLines= List.copyOf(leadLines); leadSections= List.copyOf(leadSections); chapters= List.copyOf(chapters);
+      sectionLines= List.copyOf(sectionLines); snippets= List.copyOf(snippets);
+    }
+    boolean continues(){ return !leadLines.isEmpty() || !leadSections.isEmpty(); }
+  }
+  //1 based, both included
+  public record Lines(int first, int last){}
+  public static Document of(List<Part> parts){ return new Document(parts, assemble(parts)); }
+
+  //The document of files: parts of files with the same content as here are reused, the others extracted.
+  public Document update(List<Path> files){
+    var known= parts.stream().collect(Collectors.toMap(Part::file, Function.identity(), (a,b)->a));
+    return of(files.parallelStream().map(Document::key).map(f->read(f, known.get(f))).toList());
+  }
+  //Only changed is read again. A changed file that no longer exists is dropped, a new one goes in path order.
+  public Document patch(Path changed){
+    changed= key(changed);
+    int at= -1;
+    for (int i= 0; i < parts.size() && at == -1; i++){ if (parts.get(i).file().equals(changed)){ at= i; } }
+    var next= new ArrayList<>(parts);
+    if (!Files.exists(changed)){
+      if (at == -1){ return this; }
+      next.remove(at);
+      return of(next);
+    }
+    var old= at == -1 ? null : parts.get(at);
+    var part= read(changed, old);
+    if (part == old){ return this; }
+    if (at != -1){ next.set(at, part); return of(next); }
+    int insert= 0;
+    while (insert < next.size() && next.get(insert).file().compareTo(changed) < 0){ insert++; }
+    next.add(insert, part);
+    return of(next);
+  }
+  static Path key(Path file){ return file.toAbsolutePath().normalize(); }
+  private static Part read(Path file, Part old){
+    var text= new LoadFile().loadText(file);
+    DocumentProcessor.filesRead.inc();
+    var hash= Hashes.sha256(text);
+    if (old != null && old.hash().equals(hash)){ partsReused.inc(); return old; }
+    var lines= text.lines().toList();
+    return DocumentProcessor.part(file, hash, Extractor.extractNumbered(lines.stream()), Snippet.scan(file, lines));
+  }
+  //Chapters of parts that do not continue into the next file are shared as they are.
+  static List<Chapter> assemble(List<Part> parts){
+    var res= new ArrayList<Chapter>();
+    for (var p : parts){
+      if (p.continues()){
+        if (res.isEmpty()){ throw new IllegalArgumentException(p.file()+": text before the first "+TextTag.Chapter.token()); }
+        res.add(res.removeLast().continued(p.leadLines(), p.leadSections()));
+      }
+      res.addAll(p.chapters());
+    }
+    return res;
+  }
+}
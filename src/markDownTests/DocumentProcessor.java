@@ -5,41 +5,80 @@ import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.function.Predicate;
 
+//Stateless: every call builds a fresh Document, so one processor can serve concurrent builds.
 public class DocumentProcessor {
-  private final List<Chapter> chapters = new ArrayList<>();
-  static List<Path> walk(Path root,String extension){
-    try (var s = Files.walk(root)){ return s.filter(ends(extension)).toList(); }
+  static final Metrics.Counter filesRead= Metrics.global.counter("docs_files_read_total", "Tour source files read");
+  static final Metrics.Counter linesExtracted= Metrics.global.counter("docs_lines_extracted_total", "Markdown lines extracted from the tour sources");
+  public static List<Path> walk(Path root,String extension){
+    try (var s = Files.walk(root)){ return s.filter(ends(extension)).sorted().toList(); }
     catch (IOException e){ throw new UncheckedIOException(e); }
   }
   static Predicate<Path> ends(String extension){ return p -> (p+"").endsWith(extension); }
 
   public List<Chapter> processFiles(Path root){ return processFiles(walk(root,".java")); }
-  
-  public List<Chapter> processFiles(List<Path> filePaths) {
-    filePaths.stream()
-      .map(MarkDownTest::new)
-      .map(MarkDownTest::extractMarkdownLines)
-      .flatMap(List::stream)
-      .peek(l->System.out.println(l))
-      .forEach(this::processLine);
-    return Collections.unmodifiableList(chapters);
-  }
-  private void processLine(String line) {
-    if (TextTag.Chapter.match(line)){ newChapter(line); return;}
-    if (TextTag.Section.match(line)){ newSection(line); return;}
-    var s= chapters.getLast().sections().getLast();
-    s.lines().add(line);
-  }
-  private void newChapter(String line){
-    var title= line.replace(TextTag.Chapter.token(),"").trim();
-    chapters.add(new Chapter(title));
+  public List<Chapter> processFiles(List<Path> filePaths) { return process(filePaths).chapters(); }
+  public Document process(Path root){ return process(walk(root,".java")); }
+  public Document process(List<Path> filePaths){ return Document.empty.update(filePaths); }
+  //Files unchanged since previous share its parts and chapters.
+  public Document process(List<Path> filePaths, Document previous){ return previous.update(filePaths); }
+
+  static Document.Part part(Path file, String hash, Extractor.Numbered extracted, List<Snippet> snippets){
+    var p= new PartParser();
+    var lines= extracted.lines();
+    for (int i= 0; i < lines.size(); i++){
+      Log.debug(lines.get(i));
+      p.processLine(file, lines.get(i), extracted.sourceLines()[i]);
+    }
+    p.closeSection(extracted.end() - 1);
+    p.closeChapter();
+    return new Document.Part(file, hash, p.leadLines, p.leadSections, p.chapters, p.sectionLines, snippets);
   }
-  private void newSection(String line){
-    var title= line.replace(TextTag.Section.token(),"").trim();
-    chapters.getLast().sections().add(new Chapter.Section(title));
+  private static final class PartParser{
+    final List<String> leadLines= new ArrayList<>();
+    final List<Chapter.Section> leadSections= new ArrayList<>();
+    final List<Chapter> chapters= new ArrayList<>();
+    final List<Document.Lines> sectionLines= new ArrayList<>();
+    String chapterTitle= null;
+    List<Chapter.Section> sections= leadSections;
+    String sectionTitle= null;
+    int sectionStart= 0;
+    List<String> lines= leadLines;
+    //number is the source line; a section ends on the line before the next tag
+    void processLine(Path file, String line, int number) {
+      linesExtracted.inc();
+      if (TextTag.Chapter.match(line)){ newChapter(line, number); return;}
+      if (TextTag.Section.match(line)){ newSection(line, number); return;}
+      if (lines == null){
+        throw new IllegalArgumentException(file+": text before the first "+TextTag.Section.token()+" of chapter "+chapterTitle);
+      }
+      lines.add(line);
+    }
+    void newChapter(String line, int number){
+      closeSection(number - 1);
+      closeChapter();
+      chapterTitle= line.replace(TextTag.Chapter.token(),"").trim();
+      sections= new ArrayList<>();
+      lines= null;
+    }
+    void newSection(String line, int number){
+      closeSection(number - 1);
+      sectionTitle= line.replace(TextTag.Section.token(),"").trim();
+      sectionStart= number;
+      lines= new ArrayList<>();
+    }
+    void closeSection(int last){
+      if (sectionTitle != null){
+        sections.add(new Chapter.Section(sectionTitle, lines));
+        sectionLines.add(new Document.Lines(sectionStart, last));
+      }
+      sectionTitle= null;
+    }
+    void closeChapter(){
+      if (chapterTitle != null){ chapters.add(new Chapter(chapterTitle, sections)); }
+      chapterTitle= null;
+    }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package markDownTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+//A patched document must equal the document processed again from scratch.
+class DocumentTest {
+  static final SyntheticCorpus corpus= SyntheticCorpus.tourLike(6);
+  static void write(Path p, String text){
+    try { Files.writeString(p, text); }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  static void delete(Path p){
+    try { Files.delete(p); }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  static void assertFresh(Path src, Document patched){
+    var fresh= new DocumentProcessor().process(src);
+    assertEquals(fresh.parts().stream().map(Document.Part::file).toList(), patched.parts().stream().map(Document.Part::file).toList());
+    assertEquals(fresh.chapters(), patched.chapters());
+  }
+  @Test void edit(){
+    try (var tmp= TempDir.create("document")){
+      var src= tmp.resolve("src");
+      var files= corpus.writeTo(src);
+      var doc= new DocumentProcessor().process(src);
+      write(files.get(2), corpus.withSeed(7).source(3));
+      var patched= doc.patch(files.get(2));
+      assertFresh(src, patched);
+      assertTrue(patched.parts().get(1) == doc.parts().get(1));
+      assertTrue(patched.parts().get(2) != doc.parts().get(2));
+    }
+  }
+  @Test void delete(){
+    try (var tmp= TempDir.create("document")){
+      var src= tmp.resolve("src");
+      var files= corpus.writeTo(src);
+      var doc= new DocumentProcessor().process(src);
+      delete(files.get(3));
+      var patched= doc.patch(files.get(3));
+      assertEquals(doc.parts().size() - 1, patched.parts().size());
+      assertFresh(src, patched);
+    }
+  }
+  @Test void insert(){
+    try (var tmp= TempDir.create("document")){
+      var src= tmp.resolve("src");
+      corpus.writeTo(src);
+      var doc= new DocumentProcessor().process(src);
+      var added= src.resolve(corpus.className(3)+"b.java");
+      write(added, corpus.withSeed(7).source(3));
+      var patched= doc.patch(added);
+      assertEquals(added, patched.parts().get(3).file());
+      assertFresh(src, patched);
+    }
+  }
+  //The same file spelled with . and .. segments, and relative to the working directory.
+  @Test void differentlySpelledPath(){
+    try (var tmp= TempDir.create("document")){
+      var src= tmp.resolve("src");
+      var files= corpus.writeTo(src);
+      var doc= new DocumentProcessor().process(src);
+      write(files.get(4), corpus.withSeed(7).source(5));
+      var dotted= src.resolve("./../src/"+files.get(4).getFileName());
+      var patched= doc.patch(dotted);
+      assertEquals(doc.parts().size(), patched.parts().size());
+      assertFresh(src, patched);
+      write(files.get(4), corpus.withSeed(8).source(5));
+      var relative= Path.of("").toAbsolutePath().relativize(files.get(4));
+      var again= patched.patch(relative);
+      assertEquals(doc.parts().size(), again.parts().size());
+      assertFresh(src, again);
+      var updated= doc.update(corpus.withFiles(6).writeTo(src).stream().map(p->src.resolve("../src").resolve(p.getFileName())).toList());
+      assertTrue(updated.parts().get(0) == doc.parts().get(0));
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package markDownTests;
+
+import java.util.List;
+
+//What a snippet must print and report, and whether it declares its own Main; derived in one pass over its lines.
+public record Expectation(String print, String err, boolean hasMain){
+  static final List<String> mains= List.of(":Main", ": Main", ":TestMain", ": TestMain");
+  public static Expectation of(String code){
+    var print= new StringBuilder();
+    var err= new StringBuilder();
+    boolean hasMain= false;
+    for (var l : (Iterable<String>)code.lines()::iterator){
+      if (l.startsWith(TextTag.PrintReq.token())){ print.append(l, TextTag.PrintReq.token().length(), l.length()).append('\n'); }
+      else if (l.startsWith(TextTag.ErrorReq.token())){ err.append(l, TextTag.ErrorReq.token().length(), l.length()).append('\n'); }
+      //none of the markers spans lines, so looking line by line finds what a search of the whole code finds
+      if (!hasMain){ for (var m : mains){ hasMain |= l.contains(m); } }
+    }
+    return new Expectation(print.toString(), err.toString(), hasMain);
+  }
+}
@@ -0,0 +1,58 @@
+package markDownTests;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+//The markdown of a tour source: the lines between /*START and END*/, with snippet delimiters turned
+//into ````fearless fences and OMIT_START..OMIT_END blocks dropped.
+//No state outside of a call: safe to share across threads and to use in parallel streams.
+public final class Extractor {
+  private Extractor(){}
+  //Omit handling as a fold over the lines; the line carrying OMIT_START or OMIT_END is omitted too.
+  public enum Omit{ showing, omitting;
+    //the state the line itself is in
+    public Omit at(String line){ return TextTag.OmitStart.match(line) ? omitting : this; }
+    //the state of the next line
+    public Omit after(String line){ return TextTag.OmitEnd.match(line) ? showing : at(line); }
+    public boolean shows(String line){ return at(line) == showing; }
+  }
+  public static List<String> extract(Path file){ return extract(new LoadFile().loadText(file).lines()); }
+  public static List<String> extract(List<String> lines){ return extract(lines.stream()); }
+  public static List<String> extract(Stream<String> lines){ return extractNumbered(lines).lines(); }
+  //The extracted lines with the 1 based source line of each; end is the line of END*/ (one past the
+  //last line without it), so the last section ends on end - 1.
+  public record Numbered(List<String> lines, int[] sourceLines, int end){}
+  public static Numbered extractNumbered(Stream<String> lines){
+    var res= new ArrayList<String>();
+    var numbers= new int[64];
+    var state= Omit.showing;
+    var it= lines.iterator();
+    int n= 0;
+    boolean started= false;
+    while (!started && it.hasNext()){ n++; started= TextTag.Start.match(it.next()); }
+    while (it.hasNext()){
+      var line= lineToCode(it.next());
+      n++;
+      if (state.shows(line)){
+        if (TextTag.End.match(line)){ return numbered(res, numbers, n); }
+        if (res.size() == numbers.length){ numbers= Arrays.copyOf(numbers, numbers.length * 2); }
+        numbers[res.size()]= n;
+        res.add(line);
+      }
+      state= state.after(line);
+    }
+    return numbered(res, numbers, n + 1);
+  }
+  private static Numbered numbered(List<String> lines, int[] numbers, int end){
+    return new Numbered(List.copyOf(lines), Arrays.copyOf(numbers, lines.size()), end);
+  }
+  static String lineToCode(String line){
+    line= line.replace("*|/", "*/").replace("\\\\","\\").replace("\\n\\","");
+    if (TextTag.CodeEnd.match(line)){ return "````"; }
+    if (TextTag.CodeStart.match(line)){ return "````" + FearlessCodeExtension.info; }
+    return line;
+  }
+}
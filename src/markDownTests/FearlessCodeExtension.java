@@ -0,0 +1,37 @@
+package markDownTests;
+
+import java.util.Set;
+
+import com.vladsch.flexmark.ast.FencedCodeBlock;
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.html.HtmlWriter;
+import com.vladsch.flexmark.html.renderer.NodeRenderer;
+import com.vladsch.flexmark.html.renderer.NodeRendererContext;
+import com.vladsch.flexmark.html.renderer.NodeRenderingHandler;
+import com.vladsch.flexmark.util.data.MutableDataHolder;
+
+//Renders the ````fearless blocks produced by Extractor.lineToCode already highlighted.
+public class FearlessCodeExtension implements HtmlRenderer.HtmlRendererExtension {
+  public static final String info= "fearless";
+  public static FearlessCodeExtension create(){ return new FearlessCodeExtension(); }
+  private FearlessCodeExtension(){}
+  @Override public void rendererOptions(MutableDataHolder options){}
+  @Override public void extend(HtmlRenderer.Builder builder, String rendererType){
+    if (rendererType.equals("HTML")){ builder.nodeRendererFactory(options->new CodeRenderer()); }
+  }
+  static class CodeRenderer implements NodeRenderer {
+    @Override public Set<NodeRenderingHandler<?>> getNodeRenderingHandlers(){
+      return Set.of(new NodeRenderingHandler<>(FencedCodeBlock.class, this::render));
+    }
+    private void render(FencedCodeBlock node, NodeRendererContext ctx, HtmlWriter html){
+      if (!node.getInfo().toString().equals(info)){ ctx.delegateRender(); return; }
+      html.line();
+      html.tag("pre").openPre();
+      html.attr("class", "language-" + info).withAttr().tag("code");
+      html.raw(FearlessHighlighter.highlight(node.getContentChars().normalizeEOL()));
+      html.tag("/code");
+      html.tag("/pre").closePre();
+      html.line();
+    }
+  }
+}
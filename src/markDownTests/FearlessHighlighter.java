@@ -0,0 +1,131 @@
+package markDownTests;
+
+import java.util.Set;
+
+//Single pass tokenizer for Fearless code blocks, producing html with <span class="fl-..."> tokens.
+public class FearlessHighlighter {
+  static final Set<String> keywords= Set.of(
+    "mut", "read", "iso", "imm", "mutH", "readH", "readImm",
+    "use", "as", "alias", "package");
+  private final CharSequence src;
+  private final StringBuilder res;
+  private int i= 0;
+  private FearlessHighlighter(CharSequence src){
+    this.src= src;
+    this.res= new StringBuilder(src.length() + (src.length() >> 1));
+  }
+  public static String highlight(CharSequence code){
+    var h= new FearlessHighlighter(code);
+    h.run();
+    return h.res.toString();
+  }
+  private void run(){
+    while (i < src.length()){
+      char c= src.charAt(i);
+      if (startsWith("//")){ span("fl-comment", lineEnd()); continue; }
+      if (startsWith("/*")){ span("fl-comment", blockCommentEnd()); continue; }
+      if (c == '`' || c == '"'){ span("fl-string", stringEnd(c)); continue; }
+      if (startsWith("::")){ sugar(); continue; }
+      if (c == '.' && i + 1 < src.length() && isIdStart(src.charAt(i + 1))){ span("fl-method", identEnd(i + 1)); continue; }
+      if (isDigit(c) || isSign(c) && i + 1 < src.length() && isDigit(src.charAt(i + 1)) && !afterOperand()){
+        span("fl-number", numberEnd(i + 1));
+        continue;
+      }
+      if (isIdStart(c)){ word(); continue; }
+      if (startsWith("->")){ plain(i + 2); continue; }
+      if (isOperator(c)){ span("fl-method", operatorEnd()); continue; }
+      plain(i + 1);
+    }
+  }
+  private void word(){
+    int end= identEnd(i);
+    var w= src.subSequence(i, end).toString();
+    if (keywords.contains(w)){ span("fl-keyword", end); return; }
+    int qualified= qualifiedTypeEnd(end);
+    if (qualified != -1){ span("fl-type", qualified); return; }
+    if (isTypeName(w)){ span("fl-type", end); return; }
+    plain(end);
+  }
+  private void sugar(){
+    span("fl-sugar", i + 2);
+    if (i < src.length() && isIdStart(src.charAt(i))){ span("fl-method", identEnd(i)); }
+  }
+  //base.Main and other package qualified type names
+  private int qualifiedTypeEnd(int end){
+    if (end + 1 >= src.length() || src.charAt(end) != '.' || !Character.isUpperCase(src.charAt(end + 1))){ return -1; }
+    return identEnd(end + 1);
+  }
+  private static boolean isTypeName(String w){
+    int start= 0;
+    while (start < w.length() && w.charAt(start) == '_'){ start++; }
+    return start < w.length() && Character.isUpperCase(w.charAt(start));
+  }
+  private boolean afterOperand(){
+    int j= i - 1;
+    while (j >= 0 && src.charAt(j) == ' '){ j--; }
+    if (j < 0){ return false; }
+    char p= src.charAt(j);
+    return Character.isLetterOrDigit(p) || p == '_' || p == ')' || p == ']' || p == '}' || p == '`' || p == '"';
+  }
+  private boolean startsWith(String s){
+    if (i + s.length() > src.length()){ return false; }
+    for (int k= 0; k < s.length(); k++){ if (src.charAt(i + k) != s.charAt(k)){ return false; } }
+    return true;
+  }
+  private int lineEnd(){
+    int j= i;
+    while (j < src.length() && src.charAt(j) != '\n'){ j++; }
+    return j;
+  }
+  private int blockCommentEnd(){
+    for (int j= i + 2; j + 1 < src.length(); j++){
+      if (src.charAt(j) == '*' && src.charAt(j + 1) == '/'){ return j + 2; }
+    }
+    return src.length();
+  }
+  private int stringEnd(char quote){
+    for (int j= i + 1; j < src.length(); j++){
+      char c= src.charAt(j);
+      if (c == '\\'){ j++; continue; }
+      if (c == quote || c == '\n'){ return j + 1; }
+    }
+    return src.length();
+  }
+  private int identEnd(int j){
+    while (j < src.length() && isIdPart(src.charAt(j))){ j++; }
+    return j;
+  }
+  private int numberEnd(int j){
+    while (j < src.length() && (isDigit(src.charAt(j)) || src.charAt(j) == '_'
+      || src.charAt(j) == '.' && j + 1 < src.length() && isDigit(src.charAt(j + 1)))){ j++; }
+    return j;
+  }
+  private int operatorEnd(){
+    int j= i;
+    while (j < src.length() && isOperator(src.charAt(j))){ j++; }
+    return j;
+  }
+  private static boolean isDigit(char c){ return c >= '0' && c <= '9'; }
+  private static boolean isSign(char c){ return c == '+' || c == '-'; }
+  private static boolean isIdStart(char c){ return Character.isLetter(c) || c == '_'; }
+  private static boolean isIdPart(char c){ return Character.isLetterOrDigit(c) || c == '_' || c == '\''; }
+  private static boolean isOperator(char c){ return "+-*/=<>!&|%^~#?$@\\".indexOf(c) != -1; }
+
+  private void span(String cssClass, int end){
+    res.append("<span class=\"").append(cssClass).append("\">");
+    plain(end);
+    res.append("</span>");
+  }
+  private void plain(int end){
+    for (; i < end; i++){
+      char c= src.charAt(i);
+      switch (c){
+        case '&' -> res.append("&amp;");
+        case '<' -> res.append("&lt;");
+        case '>' -> res.append("&gt;");
+        case '"' -> res.append("&quot;");
+        default -> res.append(c);
+      }
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package markDownTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class FearlessHighlighterTest {
+  static String span(String cssClass, String html){ return "<span class=\""+cssClass+"\">"+html+"</span>"; }
+  @Test void stringsAndBacktickLiterals(){
+    assertEquals(span("fl-string", "&quot;a b&quot;"), FearlessHighlighter.highlight("\"a b\""));
+    assertEquals(span("fl-string", "`a b`"), FearlessHighlighter.highlight("`a b`"));
+    assertEquals(span("fl-string", "&quot;a\\&quot;b&quot;"), FearlessHighlighter.highlight("\"a\\\"b\""));
+    assertEquals(span("fl-string", "`x`")+" "+span("fl-method", ".size"), FearlessHighlighter.highlight("`x` .size"));
+  }
+  @Test void comments(){
+    assertEquals(span("fl-comment", "//Main `x`")+"\n"+span("fl-type", "A"), FearlessHighlighter.highlight("//Main `x`\nA"));
+    assertEquals(span("fl-comment", "/* a\nb */")+" "+span("fl-keyword", "mut"), FearlessHighlighter.highlight("/* a\nb */ mut"));
+  }
+  //The fence ends the code: the open token is closed with it rather than swallowing what follows.
+  @Test void unterminatedAtTheEndOfTheFence(){
+    assertEquals(span("fl-string", "&quot;abc"), FearlessHighlighter.highlight("\"abc"));
+    assertEquals(span("fl-string", "`abc\\"), FearlessHighlighter.highlight("`abc\\"));
+    assertEquals(span("fl-comment", "/* abc *"), FearlessHighlighter.highlight("/* abc *"));
+    assertEquals(span("fl-comment", "// abc"), FearlessHighlighter.highlight("// abc"));
+    assertEquals(span("fl-string", "&quot;a\n")+span("fl-type", "B"), FearlessHighlighter.highlight("\"a\nB"));
+  }
+  @Test void htmlIsEscaped(){
+    assertEquals(span("fl-method", "&lt;")+" "+span("fl-method", "&amp;&amp;"), FearlessHighlighter.highlight("< &&"));
+    assertEquals(span("fl-comment", "//&lt;b&gt; &amp; &quot;q&quot;"), FearlessHighlighter.highlight("//<b> & \"q\""));
+    assertEquals(span("fl-string", "`&lt;/pre&gt;`"), FearlessHighlighter.highlight("`</pre>`"));
+  }
+}
@@ -0,0 +1,26 @@
+package markDownTests;
+
+import java.util.List;
+import java.util.Map;
+
+public record Fingerprints(Map<String,String> renames, String criticalCss){
+  public String rewrite(String page){
+    for (var e : renames.entrySet()){ page= rewrite(page, e.getKey(), e.getValue()); }
+    return page;
+  }
+  //Assets are referenced either as "name" or, from layouts with nested pages, as "{{root}}name".
+  private String rewrite(String page, String from, String to){
+    for (var root : List.of("", "{{root}}")){ page= rewriteRef(page, root + from, root + to); }
+    return page;
+  }
+  private String rewriteRef(String page, String from, String to){
+    var link= "<link rel=\"stylesheet\" href=\"" + from + "\">";
+    if (!criticalCss.isEmpty() && page.contains(link)){
+      var deferred= "<style>" + criticalCss + "</style>\n"
+        + "  <link rel=\"preload\" href=\"" + to + "\" as=\"style\" onload=\"this.onload=null;this.rel='stylesheet'\">\n"
+        + "  <noscript><link rel=\"stylesheet\" href=\"" + to + "\"></noscript>";
+      page= page.replace(link, deferred);
+    }
+    return page.replace("\"" + from + "\"", "\"" + to + "\"");
+  }
+}
@@ -0,0 +1,33 @@
+package markDownTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class FingerprintsTest {
+  static final Fingerprints styles= new Fingerprints(Map.of("styles.css", "styles.0123456789.css"), "");
+  @Test void flatReferencesAreRewritten(){
+    assertEquals("<link rel=\"stylesheet\" href=\"styles.0123456789.css\">",
+      styles.rewrite("<link rel=\"stylesheet\" href=\"styles.css\">"));
+    assertEquals("<a href=\"mystyles.css\">", styles.rewrite("<a href=\"mystyles.css\">"));
+  }
+  //Nested layouts reach the assets through {{root}}, filled per page with "" or "../".
+  @Test void rootReferencesAreRewritten(){
+    var layout= styles.rewrite(PageTemplate.defaultLayout);
+    assertTrue(layout.contains("href=\"{{root}}styles.0123456789.css\""), layout);
+    assertTrue(!layout.contains("styles.css"), layout);
+    assertEquals("<img src=\"{{root}}img/{{root}}styles.css\">", styles.rewrite("<img src=\"{{root}}img/{{root}}styles.css\">"));
+  }
+  //With critical css the stylesheet link becomes the inlined rules plus a deferred load of the full sheet.
+  @Test void criticalCssDefersTheStylesheet(){
+    var fp= new Fingerprints(Map.of("styles.css", "styles.0123456789.css"), "body{margin:0}\n");
+    var page= fp.rewrite("<link rel=\"stylesheet\" href=\"{{root}}styles.css\">");
+    assertTrue(page.startsWith("<style>body{margin:0}\n</style>\n"), page);
+    assertTrue(page.contains("<link rel=\"preload\" href=\"{{root}}styles.0123456789.css\" as=\"style\""), page);
+    assertTrue(page.contains("<noscript><link rel=\"stylesheet\" href=\"{{root}}styles.0123456789.css\"></noscript>"), page);
+    assertTrue(!page.contains("\"{{root}}styles.css\""), page);
+  }
+}
@@ -0,0 +1,75 @@
+package markDownTests;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+//Rendered html fragments keyed by the hash of (renderer config, markdown text).
+public interface FragmentCache {
+  String get(String config, String markdown, UnaryOperator<String> render);
+  void trim();
+
+  static FragmentCache none(){ return None.instance; }
+  static FragmentCache onDisk(Path dir, long maxBytes){ return new OnDisk(dir, maxBytes); }
+
+  enum None implements FragmentCache {
+    instance;
+    @Override public String get(String config, String markdown, UnaryOperator<String> render){ return render.apply(markdown); }
+    @Override public void trim(){}
+  }
+  //One file per fragment; hits refresh the modification time, trim evicts the least recently used.
+  record OnDisk(Path dir, long maxBytes) implements FragmentCache {
+    public OnDisk{
+      try { Files.createDirectories(dir); }
+      catch (IOException e){ throw new UncheckedIOException(e); }
+    }
+    @Override public String get(String config, String markdown, UnaryOperator<String> render){
+      var file= dir.resolve(Hashes.sha256(config + "\n" + markdown) + ".html");
+      try {
+        var res= Files.readString(file);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        return res;
+      }
+      catch (NoSuchFileException e){ return store(file, render.apply(markdown)); }
+      catch (IOException e){ throw new UncheckedIOException(e); }
+    }
+    private String store(Path file, String html){
+      var tmp= file.resolveSibling(file.getFileName() + "." + Thread.currentThread().threadId() + ".tmp");
+      try {
+        Files.writeString(tmp, html);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (IOException e){ throw new UncheckedIOException(e); }
+      return html;
+    }
+    @Override public void trim(){
+      List<Entry> entries;
+      try (var s= Files.list(dir)){ entries= s.filter(DocumentProcessor.ends(".html")).flatMap(Entry::of).toList(); }
+      catch (IOException e){ throw new UncheckedIOException(e); }
+      long total= entries.stream().mapToLong(Entry::size).sum();
+      var oldestFirst= entries.stream().sorted(Comparator.comparing(Entry::used)).iterator();
+      while (total > maxBytes && oldestFirst.hasNext()){
+        var e= oldestFirst.next();
+        try { Files.deleteIfExists(e.path()); }
+        catch (IOException ex){ throw new UncheckedIOException(ex); }
+        total -= e.size();
+      }
+    }
+    private record Entry(Path path, long size, FileTime used){
+      //empty if a concurrent trim of a shared cache removed it
+      static Stream<Entry> of(Path p){
+        try { return Stream.of(new Entry(p, Files.size(p), Files.getLastModifiedTime(p))); }
+        catch (NoSuchFileException e){ return Stream.empty(); }
+        catch (IOException e){ throw new UncheckedIOException(e); }
+      }
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package markDownTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import org.junit.jupiter.api.Test;
+
+import com.vladsch.flexmark.util.misc.Extension;
+
+class FragmentCacheTest {
+  //Renders to the markdown in upper case and records what it had to render.
+  static final class Renders implements UnaryOperator<String> {
+    final List<String> done= new ArrayList<>();
+    @Override public String apply(String markdown){ done.add(markdown); return markdown.toUpperCase(); }
+  }
+  static Path fileOf(Path dir, String html){
+    try (var files= Files.list(dir)){
+      return files.filter(p->read(p).equals(html)).findFirst().orElseThrow();
+    }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  static String read(Path p){
+    try { return Files.readString(p); }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  static void touch(Path p, long millis){
+    try { Files.setLastModifiedTime(p, FileTime.fromMillis(millis)); }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  @Test void hitAndMissOnConfigChange(){
+    try (var tmp= TempDir.create("fragments")){
+      var cache= FragmentCache.onDisk(tmp.path(), 1 << 20);
+      var render= new Renders();
+      assertEquals("# A", cache.get("c1", "# a", render));
+      assertEquals("# A", cache.get("c1", "# a", render));
+      assertEquals(List.of("# a"), render.done);
+      assertEquals("# A", cache.get("c2", "# a", render));
+      assertEquals(List.of("# a", "# a"), render.done);
+    }
+  }
+  //Over maxBytes, the least recently used fragments go first; a hit makes a fragment recent again.
+  @Test void trimEvictsLeastRecentlyUsed(){
+    try (var tmp= TempDir.create("fragments")){
+      var cache= FragmentCache.onDisk(tmp.path(), 20);
+      var render= new Renders();
+      for (var m : List.of("aaaaaaaaaa", "bbbbbbbbbb", "cccccccccc")){ cache.get("c", m, render); }
+      long now= System.currentTimeMillis();
+      touch(fileOf(tmp.path(), "AAAAAAAAAA"), now - 30_000);
+      touch(fileOf(tmp.path(), "BBBBBBBBBB"), now - 20_000);
+      touch(fileOf(tmp.path(), "CCCCCCCCCC"), now - 10_000);
+      cache.get("c", "aaaaaaaaaa", render);//a is now the most recent
+      cache.trim();
+      render.done.clear();
+      for (var m : List.of("aaaaaaaaaa", "bbbbbbbbbb", "cccccccccc")){ cache.get("c", m, render); }
+      assertEquals(List.of("bbbbbbbbbb"), render.done);
+    }
+  }
+  @Test void configFollowsTheRenderingSetup(){
+    assertEquals(MarkdownEngine.standard().config(), MarkdownEngine.standard().config());
+    var extensions= List.<Extension>of(FearlessCodeExtension.create());
+    var withHighlighter= MarkdownEngine.config(extensions, List.of(FearlessCodeExtension.class, FearlessHighlighter.class));
+    assertTrue(!withHighlighter.equals(MarkdownEngine.config(extensions, List.of(FearlessCodeExtension.class))));
+    assertTrue(!withHighlighter.equals(MarkdownEngine.standard().config()));
+  }
+}
@@ -0,0 +1,31 @@
+package markDownTests;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public class Hashes {
+  public static String sha256(String text){ return sha256(text.getBytes(StandardCharsets.UTF_8)); }
+  public static String sha256(byte[] bytes){ return HexFormat.of().formatHex(digest().digest(bytes)); }
+  //Of the class file of c and of its nested classes: changes whenever the compiled code does.
+  public static String sha256(Class<?> c){
+    var res= new StringBuilder(c.getName()).append('=').append(sha256(bytecode(c)));
+    for (var n : c.getDeclaredClasses()){ res.append('\n').append(sha256(n)); }
+    return sha256(res.toString());
+  }
+  static byte[] bytecode(Class<?> c){
+    var name= c.getName().substring(c.getName().lastIndexOf('.') + 1) + ".class";
+    try (var in= c.getResourceAsStream(name)){
+      if (in == null){ throw new IllegalStateException("No class file for "+c.getName()); }
+      return in.readAllBytes();
+    }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  static MessageDigest digest(){
+    try { return MessageDigest.getInstance("SHA-256"); }
+    catch (NoSuchAlgorithmException e){ throw new IllegalStateException(e); }
+  }
+}
@@ -1,111 +1,72 @@
 package markDownTests;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
-import com.vladsch.flexmark.html.HtmlRenderer;
-import com.vladsch.flexmark.parser.Parser;
-import com.vladsch.flexmark.ext.tables.TablesExtension;
-
-public record HtmlCreator(Path rootPath){
-  private static final String HTML_HEADER = """
-    <!DOCTYPE html>
-    <html lang="en">
-    <head>
-      <meta charset="UTF-8">
-      <title>%s</title>
-      <link rel="stylesheet" href="styles.css">
-    </head>
-    <body>
-      <div id="sidebar">
-      %s
-      </div>
-      <div id="content" class="markdown-content">
-    """;
-  private static final String HTML_FOOTER = """
-          <div class="nav-links">
-          %s %s
-          </div>
-        </div>
-      </body>
-    </html>
-    """;
-  private List<SectionInfo> collectSections(List<Chapter> chapters) {
+public record HtmlCreator(Output output, Assets assets, MarkdownEngine engine, PageTemplate layout, SiteLayout site){
+  static final Metrics.Counter sectionsRendered= Metrics.global.counter("html_sections_rendered_total", "Section pages rendered");
+  static final Metrics.Counter bytesRendered= Metrics.global.counter("html_bytes_rendered_total", "Bytes of html pages rendered");
+  static final Metrics.Histogram pageRender= Metrics.global.histogram("html_page_render_seconds", "Time to render one section page");
+  public HtmlCreator(Path rootPath){ this(Output.dir(rootPath), Assets.none(), MarkdownEngine.standard(), PageTemplate.standard(), SiteLayout.flat); }
+  List<SectionInfo> collectSections(List<Chapter> chapters) {
     List<SectionInfo> sections= new ArrayList<>();
     int chapterNum= 1;
     for (var chapter : chapters){
       int sectionNum= 1;
       for (var section : chapter.sections()) {
-        sections.add(new SectionInfo(chapter.title(), section.title(), chapterNum, sectionNum, section.lines()));
+        var path= site.path(chapter.title(), section.title(), chapterNum, chapters.size(), sectionNum, chapter.sections().size());
+        sections.add(new SectionInfo(chapter.title(), section.title(), chapterNum, sectionNum, path, section.lines()));
         sectionNum++;
       }
       chapterNum++;
     }
     return sections;
   }
-  private String generateSidebar(List<SectionInfo> sections) {
-    StringBuilder sideBar= new StringBuilder();
-    for (var s : sections){ sideBar.append(s.sideBarEntry()); }
-    return sideBar.toString();
-  }
-  public void generateHtmlPages(List<Chapter> chapters) {
+  public void generateHtmlPages(List<Chapter> chapters) { generateHtmlPages(chapters, Runnable::run); }
+  //Pages are rendered on the executor, at most window ahead, and written in order.
+  public void generateHtmlPages(List<Chapter> chapters, Executor executor) {
     List<SectionInfo> allSections = collectSections(chapters);
-    String sideBar = generateSidebar(allSections);
-    for(int i=0;i<allSections.size();i++){ generatePage(i,sideBar,allSections);}
-  }
-  private void generatePage(int i, String sideBar, List<SectionInfo> allSections){
-    var title=   allSections.get(i).pageTitle();
-    var fName=   allSections.get(i).fileName();
-    var current= allSections.get(i).generatePage();
-    var prev=    Optional.ofNullable(i==0?null:allSections.get(i-1));
-    var next=    Optional.ofNullable(i+1==allSections.size()?null:allSections.get(i+1));
-    var prevL=   prev.map(SectionInfo::asPrevLink).orElse("<span class=\"disabled\">Previous</span>");
-    var nextL=   next.map(SectionInfo::asNextLink).orElse("<span class=\"disabled\">Next</span>");
-    var all=     new StringBuilder();
-    all.append(String.format(HTML_HEADER, title, sideBar));
-    all.append(current);
-    all.append(String.format(HTML_FOOTER, prevL, nextL));
-    writeFile(fName, all.toString());
-  }
-  private void writeFile(String fileName, String content){
-    Path filePath= rootPath.resolve(fileName);
-    try {
-      Files.createDirectories(filePath.getParent());
-      Files.writeString(filePath, content);
+    var sideBars= new HashMap<Integer,String>();
+    for (var s : allSections){ sideBars.computeIfAbsent(site.sidebarScope(s), k->site.sidebar(allSections, s)); }
+    int window= 4 * Runtime.getRuntime().availableProcessors();
+    try (output){
+      PageTemplate template = layout.rewrite(assets.publish(output)::rewrite);
+      var pending= new ArrayDeque<CompletableFuture<Rendered>>();
+      for(int i=0;i<allSections.size();i++){
+        int at= i;
+        var sideBar= sideBars.get(site.sidebarScope(allSections.get(i)));
+        pending.add(CompletableFuture.supplyAsync(()->generatePage(at,sideBar,allSections,template), executor));
+        if (pending.size() > window){ write(pending.poll().join()); }
+      }
+      while (!pending.isEmpty()){ write(pending.poll().join()); }
     }
-    catch (IOException e){ throw new UncheckedIOException(e); }
+    engine.cache().trim();
   }
-}
-record SectionInfo(
-  String chapterTitle, String sectionTitle,
-  int chapterNumber, int sectionNumber, List<String> lines){
-  SectionInfo{
-    assert chapterNumber <= 99;
-    assert sectionNumber <= 99;
-  }
-  public String fileName(){ return String.format("%02d_%02d.html", chapterNumber, sectionNumber); }
-  public String pageTitle(){ return chapterTitle + " :: " + sectionTitle; }
-  public String sideBarEntry() {
-    String displayName = pageTitle();
-    String fileName = fileName();
-    String sideBar= "<div class=\"sidebar-entry\"><a href=\"%s\">%s</a></div>\n";
-    return String.format(sideBar, fileName, displayName);
+  private record Rendered(String fileName, byte[] page){}
+  private void write(Rendered r){
+    bytesRendered.add(r.page().length);
+    output.write(r.fileName(), r.page());
   }
-  public String asPrevLink(){ return "<a href=\""+fileName()+"\">Previous</a>"; }
-  public String asNextLink(){ return "<a href=\""+fileName()+"\">Next</a>"; }
-
-  public String generatePage(){
-    String text= lines.stream().collect(Collectors.joining("\n"));
-    List<Parser.ParserExtension> extensions = List.of(TablesExtension.create());
-    Parser parser = Parser.builder().extensions(extensions).build();
-    HtmlRenderer renderer = HtmlRenderer.builder().extensions(extensions).build();
-    return renderer.render(parser.parse(text));    
+  private Rendered generatePage(int i, String sideBar, List<SectionInfo> allSections, PageTemplate template){
+    long start=  System.nanoTime();
+    var section= allSections.get(i);
+    var title=   section.pageTitle();
+    var fName=   section.path();
+    var current= section.generatePage(engine);
+    var prev=    Optional.ofNullable(i==0?null:allSections.get(i-1));
+    var next=    Optional.ofNullable(i+1==allSections.size()?null:allSections.get(i+1));
+    var prevL=   prev.map(p->p.asPrevLink(fName)).orElse("<span class=\"disabled\">Previous</span>");
+    var nextL=   next.map(n->n.asNextLink(fName)).orElse("<span class=\"disabled\">Next</span>");
+    var root=    SiteLayout.root(fName);
+    var page=    template.render(new PageTemplate.Page(title, sideBar, current, prevL, nextL, root));
+    pageRender.observe(System.nanoTime() - start);
+    sectionsRendered.inc();
+    return new Rendered(fName, page);
   }
-
 }
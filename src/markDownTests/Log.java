@@ -0,0 +1,60 @@
+package markDownTests;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+//Leveled logging, -Dtour.log=debug|info|warn|error (default info).
+//Callers only enqueue: a daemon thread drains the queue in batches and flushes once per batch,
+//so a debug trace of every extracted line does not block the extraction thread on console I/O.
+//Disabled levels cost a comparison; use the Supplier overloads for messages that are costly to build.
+public final class Log {
+  public enum Level{ debug, info, warn, error }
+  public static final Level level= Level.valueOf(System.getProperty("tour.log", Level.info.name()));
+  private record Entry(Level level, String message){}
+  private static final Entry end= new Entry(Level.error, "");
+  private static final LinkedBlockingQueue<Entry> queue= new LinkedBlockingQueue<>();
+  private static final Thread appender= Thread.ofPlatform().daemon().name("log-appender").start(Log::drain);
+  static{ Runtime.getRuntime().addShutdownHook(new Thread(Log::close)); }
+  private Log(){}
+
+  public static boolean enabled(Level l){ return l.compareTo(level) >= 0; }
+  public static void debug(String message){ log(Level.debug, message); }
+  public static void debug(Supplier<String> message){ if (enabled(Level.debug)){ log(Level.debug, message.get()); } }
+  public static void info(String message){ log(Level.info, message); }
+  public static void warn(String message){ log(Level.warn, message); }
+  public static void error(String message){ log(Level.error, message); }
+  public static void log(Level l, String message){
+    if (enabled(l)){ queue.add(new Entry(l, message)); }
+  }
+  private static void drain(){
+    List<Entry> batch= new ArrayList<>();
+    while (true){
+      try { batch.add(queue.take()); }
+      catch (InterruptedException e){ return; }
+      queue.drainTo(batch);
+      boolean last= batch.removeIf(e->e == end);
+      write(System.out, batch.stream().filter(e->e.level().compareTo(Level.warn) < 0));
+      write(System.err, batch.stream().filter(e->e.level().compareTo(Level.warn) >= 0));
+      batch.clear();
+      if (last){ return; }
+    }
+  }
+  //one write per stream and batch
+  private static void write(PrintStream out, Stream<Entry> entries){
+    var text= entries.map(e->e.message()+System.lineSeparator()).collect(Collectors.joining());
+    if (text.isEmpty()){ return; }
+    out.print(text);
+    out.flush();
+  }
+  //Writes out what is queued; called on shutdown.
+  static void close(){
+    queue.add(end);
+    try { appender.join(); }
+    catch (InterruptedException e){ Thread.currentThread().interrupt(); }
+  }
+}
@@ -0,0 +1,42 @@
+package markDownTests;
+
+import java.util.List;
+
+import com.vladsch.flexmark.ext.tables.TablesExtension;
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.misc.Extension;
+
+//Parser and renderer are immutable and thread safe: build them once and share them.
+//config identifies the rendering setup, so that a persistent FragmentCache never serves html of an
+//older one: it is derived from the extensions, the bytecode of the classes producing our html and
+//the flexmark version, not kept by hand.
+public record MarkdownEngine(Parser parser, HtmlRenderer renderer, String config, FragmentCache cache){
+  //The classes of this project that decide the rendered html; their nested classes are included.
+  static final List<Class<?>> renderingClasses= List.of(FearlessCodeExtension.class, FearlessHighlighter.class);
+  public static MarkdownEngine standard(){
+    List<Extension> extensions = List.of(TablesExtension.create(), FearlessCodeExtension.create());
+    return new MarkdownEngine(
+      Parser.builder().extensions(extensions).build(),
+      HtmlRenderer.builder().extensions(extensions).build(),
+      config(extensions, renderingClasses),
+      FragmentCache.none());
+  }
+  static String config(List<Extension> extensions, List<Class<?>> rendering){
+    var res= new StringBuilder();
+    for (var e : extensions){ res.append(e.getClass().getName()).append(' ').append(version(e.getClass())).append('\n'); }
+    res.append("flexmark ").append(version(Parser.class)).append(' ').append(version(HtmlRenderer.class)).append('\n');
+    rendering.forEach(c->res.append(Hashes.sha256(c)).append('\n'));
+    return Hashes.sha256(res.toString());
+  }
+  //The jar version, or where the classes come from when the jar has no version in its manifest.
+  static String version(Class<?> c){
+    var v= c.getPackage() == null ? null : c.getPackage().getImplementationVersion();
+    if (v != null){ return v; }
+    var source= c.getProtectionDomain().getCodeSource();
+    return source == null ? "unknown" : source.getLocation().toString();
+  }
+  public MarkdownEngine withCache(FragmentCache cache){ return new MarkdownEngine(parser, renderer, config, cache); }
+  public String render(String markdown){ return cache.get(config, markdown, this::renderNow); }
+  private String renderNow(String markdown){ return renderer.render(parser.parse(markdown)); }
+}
@@ -0,0 +1,113 @@
+package markDownTests;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+//In-process counters, gauges and latency histograms, exported in the Prometheus text format.
+//Updates never lock: counters and buckets are LongAdders, gauges AtomicLongs.
+//A series is a metric name plus optional label pairs: counter("x_total", "help", "stage", "scan").
+public final class Metrics {
+  public static final Metrics global= new Metrics();
+  //seconds; the last bucket is +Inf
+  public static final double[] latencyBuckets= {.001, .0025, .005, .01, .025, .05, .1, .25, .5, 1, 2.5, 5, 10, 30};
+
+  public sealed interface Metric permits Counter, Gauge, Histogram{
+    void write(StringBuilder out, String series);
+  }
+  public static final class Counter implements Metric{
+    private final LongAdder value= new LongAdder();
+    public void inc(){ value.increment(); }
+    public void add(long n){ value.add(n); }
+    public long get(){ return value.sum(); }
+    @Override public void write(StringBuilder out, String series){ line(out, series, "", get()+""); }
+  }
+  public static final class Gauge implements Metric{
+    private final AtomicLong value= new AtomicLong();
+    public void set(long n){ value.set(n); }
+    public void add(long n){ value.addAndGet(n); }
+    public long get(){ return value.get(); }
+    @Override public void write(StringBuilder out, String series){ line(out, series, "", get()+""); }
+  }
+  public static final class Histogram implements Metric{
+    private final long[] bounds= new long[latencyBuckets.length];//nanos
+    private final LongAdder[] counts= new LongAdder[latencyBuckets.length + 1];
+    private final LongAdder sum= new LongAdder();
+    Histogram(){
+      for (int i= 0; i < bounds.length; i++){ bounds[i]= (long)(latencyBuckets[i] * 1e9); }
+      for (int i= 0; i < counts.length; i++){ counts[i]= new LongAdder(); }
+    }
+    public void observe(long nanos){
+      int i= 0;
+      while (i < bounds.length && nanos > bounds[i]){ i++; }
+      counts[i].increment();
+      sum.add(nanos);
+    }
+    public long count(){ long n= 0; for (var c : counts){ n += c.sum(); } return n; }
+    @Override public void write(StringBuilder out, String series){
+      long cumulative= 0;
+      for (int i= 0; i < counts.length; i++){
+        cumulative += counts[i].sum();
+        var le= i < bounds.length ? latencyBuckets[i]+"" : "+Inf";
+        line(out, withLabel(series, "le", le), "_bucket", cumulative+"");
+      }
+      line(out, series, "_sum", sum.sum() / 1e9+"");
+      line(out, series, "_count", cumulative+"");
+    }
+  }
+  private record Family(String type, String help, Map<String,Metric> series){}
+  private final Map<String,Family> families= new ConcurrentHashMap<>();
+
+  public Counter counter(String name, String help, String... labels){ return get("counter", name, help, labels, Counter::new); }
+  public Gauge gauge(String name, String help, String... labels){ return get("gauge", name, help, labels, Gauge::new); }
+  public Histogram histogram(String name, String help, String... labels){ return get("histogram", name, help, labels, Histogram::new); }
+  //Records build stage durations as stage_duration_seconds{stage=...}.
+  public void stages(Map<String,Long> nanos){
+    nanos.forEach((stage, n)->histogram("stage_duration_seconds", "Duration of a build stage", "stage", stage).observe(n));
+  }
+  @SuppressWarnings("unchecked")
+  private <M extends Metric> M get(String type, String name, String help, String[] labels, Supplier<M> make){
+    assert labels.length % 2 == 0 : "labels come in name/value pairs";
+    var family= families.computeIfAbsent(name, k->new Family(type, help, new ConcurrentHashMap<>()));
+    if (!family.type().equals(type)){ throw new IllegalArgumentException(name+" is a "+family.type()); }
+    var series= name;
+    for (int i= 0; i < labels.length; i += 2){ series= withLabel(series, labels[i], labels[i + 1]); }
+    return (M)family.series().computeIfAbsent(series, k->make.get());
+  }
+  public String prometheus(){
+    var out= new StringBuilder();
+    new TreeMap<>(families).forEach((name, f)->{
+      out.append("# HELP ").append(name).append(' ').append(f.help()).append('\n');
+      out.append("# TYPE ").append(name).append(' ').append(f.type()).append('\n');
+      new TreeMap<>(f.series()).forEach((series, m)->m.write(out, series));
+    });
+    return out.toString();
+  }
+  public void export(Path file){
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      Files.writeString(file, prometheus());
+    }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  //name{a="1"} + _bucket -> name_bucket{a="1"}
+  private static void line(StringBuilder out, String series, String suffix, String value){
+    int brace= series.indexOf('{');
+    var name= brace < 0 ? series : series.substring(0, brace);
+    var labels= brace < 0 ? "" : series.substring(brace);
+    out.append(name).append(suffix).append(labels).append(' ').append(value).append('\n');
+  }
+  private static String withLabel(String series, String label, String value){
+    var pair= label+"=\""+value.replace("\\", "\\\\").replace("\"", "\\\"")+"\"";
+    return series.endsWith("}")
+      ? series.substring(0, series.length() - 1)+","+pair+"}"
+      : series+"{"+pair+"}";
+  }
+}
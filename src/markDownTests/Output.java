@@ -0,0 +1,163 @@
+package markDownTests;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+//Where HtmlCreator puts generated pages and assets; closing it completes the output.
+public sealed interface Output extends AutoCloseable permits Output.Dir, Output.Zip, Output.Async {
+  void write(String fileName, byte[] content);
+  @Override void close();
+
+  static Output dir(Path root){ return new Dir(root, false); }
+  static Output dir(Path root, boolean precompress){ return new Dir(root, precompress); }
+  static Output zip(Path archive){ return new Zip(archive); }
+  static Output async(Output inner, int threads){ return new Async(inner, inner instanceof Zip ? 1 : threads, 64); }
+  //Counted where the bytes really go: files Dir leaves unchanged are not written.
+  private static Metrics.Counter bytesWritten(){ return Metrics.global.counter("html_bytes_written_total", "Bytes of pages and assets written"); }
+
+  //One file per page; unchanged files are not rewritten, changed ones get a .gz sibling on close.
+  final class Dir implements Output {
+    private static final Metrics.Counter bytesWritten= Output.bytesWritten();
+    private static final Metrics.Counter unchanged= Metrics.global.counter("html_files_unchanged_total", "Files not rewritten because their content was the same");
+    private final Path root;
+    private final boolean precompress;
+    private final Queue<Path> written= new ConcurrentLinkedQueue<>();
+    //computeIfAbsent makes the other writers to a new directory wait until it exists
+    private final Map<Path,Path> dirs= new ConcurrentHashMap<>();
+    Dir(Path root, boolean precompress){ this.root= root; this.precompress= precompress; }
+    public Path root(){ return root; }
+    @Override public void write(String fileName, byte[] content){
+      Path filePath= root.resolve(fileName);
+      try {
+        boolean same= Files.exists(filePath) && Arrays.equals(Files.readAllBytes(filePath), content);
+        if (same && (!precompress || Files.exists(Precompressor.sibling(filePath)))){ unchanged.inc(); return; }
+        dirs.computeIfAbsent(filePath.getParent(), Dir::createDirectories);
+        Files.write(filePath, content);
+        bytesWritten.add(content.length);
+        written.add(filePath);
+      }
+      catch (IOException e){ throw new UncheckedIOException(e); }
+    }
+    private static Path createDirectories(Path dir){
+      try { return Files.createDirectories(dir); }
+      catch (IOException e){ throw new UncheckedIOException(e); }
+    }
+    @Override public void close(){
+      if (precompress){ Precompressor.gzipAll(List.copyOf(written)); }
+      written.clear();
+    }
+  }
+  //A single archive streamed in write order, with fixed timestamps so that builds are reproducible.
+  final class Zip implements Output {
+    private static final LocalDateTime epoch= LocalDateTime.of(1980, 1, 1, 0, 0);
+    private static final Metrics.Counter bytesWritten= Output.bytesWritten();
+    private final Path archive;
+    private final Path tmp;
+    private final ZipOutputStream zip;
+    Zip(Path archive){
+      this.archive= archive;
+      this.tmp= archive.resolveSibling(archive.getFileName() + ".tmp");
+      try {
+        Files.createDirectories(archive.toAbsolutePath().getParent());
+        this.zip= new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16));
+      }
+      catch (IOException e){ throw new UncheckedIOException(e); }
+    }
+    @Override public void write(String fileName, byte[] content){
+      var entry= new ZipEntry(fileName.replace('\\', '/'));
+      entry.setTimeLocal(epoch);
+      try {
+        zip.putNextEntry(entry);
+        zip.write(content);
+        zip.closeEntry();
+        bytesWritten.add(content.length);
+      }
+      catch (IOException e){ throw new UncheckedIOException(e); }
+    }
+    @Override public void close(){
+      try {
+        zip.close();
+        Files.move(tmp, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (IOException e){ throw new UncheckedIOException(e); }
+    }
+  }
+  //Pages are queued (bounded) and written by a few io threads; close() waits for all of them.
+  final class Async implements Output {
+    private record Pending(String fileName, byte[] content){}
+    private static final Pending end= new Pending("", new byte[0]);
+    private final Output inner;
+    private final BlockingQueue<Pending> queue;
+    private final List<Thread> writers= new ArrayList<>();
+    private final AtomicReference<Throwable> failure= new AtomicReference<>();
+    private final AtomicBoolean reported= new AtomicBoolean();
+    Async(Output inner, int threads, int capacity){
+      this.inner= inner;
+      this.queue= new ArrayBlockingQueue<>(capacity);
+      for (int i= 0; i < threads; i++){
+        writers.add(Thread.ofPlatform().daemon().name("html-writer-" + i).start(this::drain));
+      }
+    }
+    private void drain(){
+      while (true){
+        var p= take();
+        if (p == end){ return; }
+        if (failure.get() != null){ continue; }
+        //an Error too: a dead writer would leave write() and close() blocked on the queue
+        try { inner.write(p.fileName(), p.content()); }
+        catch (Throwable t){ failure.compareAndSet(null, t); }
+      }
+    }
+    private Pending take(){
+      try { return queue.take(); }
+      catch (InterruptedException e){ Thread.currentThread().interrupt(); return end; }
+    }
+    //the failure is thrown once; later calls wrap it, as try-with-resources cannot suppress an exception into itself
+    private void checkFailure(){
+      var e= failure.get();
+      if (e == null){ return; }
+      if (!reported.compareAndSet(false, true)){ throw new IllegalStateException("An earlier write failed", e); }
+      if (e instanceof RuntimeException r){ throw r; }
+      if (e instanceof Error err){ throw err; }
+      throw new IllegalStateException(e);
+    }
+    @Override public void write(String fileName, byte[] content){
+      checkFailure();
+      try { queue.put(new Pending(fileName, content)); }
+      catch (InterruptedException e){
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+    }
+    @Override public void close(){
+      try {
+        for (int i= 0; i < writers.size(); i++){ queue.put(end); }
+        for (var t : writers){ t.join(); }
+      }
+      catch (InterruptedException e){
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+      finally { inner.close(); }
+      checkFailure();
+    }
+  }
+}
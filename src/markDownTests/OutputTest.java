@@ -0,0 +1,67 @@
+package markDownTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+class OutputTest {
+  static String read(Path p){
+    try { return Files.readString(p); }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  static void write(Path p, String text){
+    try { Files.writeString(p, text); }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  //Writers racing to the same new directories: every write must find its directory created.
+  @Test void concurrentWritesIntoNewDirectories(){
+    for (int run= 0; run < 50; run++){
+      try (var tmp= TempDir.create("output")){
+        try (var out= Output.async(Output.dir(tmp.path()), 4)){
+          for (int d= 0; d < 20; d++){
+            for (int p= 0; p < 10; p++){ out.write("d"+d+"/p"+p+".html", ("page "+d+"."+p).getBytes()); }
+          }
+        }
+        for (int d= 0; d < 20; d++){
+          for (int p= 0; p < 10; p++){ assertEquals("page "+d+"."+p, read(tmp.resolve("d"+d+"/p"+p+".html"))); }
+        }
+      }
+    }
+  }
+  //After a failed write the writers keep taking pages, so that more writes than the queue holds and close() return.
+  @Test void failedWriteDoesNotBlockTheOthers(){
+    try (var tmp= TempDir.create("output")){
+      write(tmp.resolve("a"), "a file where a directory should be");
+      var failures= 0;
+      try (var out= Output.async(Output.dir(tmp.path()), 1)){
+        for (int p= 0; p < 500; p++){
+          try { out.write("a/p"+p+".html", "x".getBytes()); }
+          catch (RuntimeException e){ failures++; }
+        }
+      }
+      catch (RuntimeException e){ failures++; }
+      assertTrue(failures > 0);
+    }
+  }
+  @Test void unchangedFilesAreNotRewritten(){
+    try (var tmp= TempDir.create("output")){
+      var page= tmp.resolve("a/p.html");
+      try (var out= Output.dir(tmp.path())){ out.write("a/p.html", "x".getBytes()); }
+      long before= page.toFile().lastModified();
+      page.toFile().setLastModified(before - 10_000);
+      var bytes= Metrics.global.counter("html_bytes_written_total", "");
+      long written= bytes.get();
+      try (var out= Output.dir(tmp.path())){ out.write("a/p.html", "x".getBytes()); }
+      assertEquals(before - 10_000, page.toFile().lastModified());
+      assertEquals(written, bytes.get());
+      try (var out= Output.dir(tmp.path())){ out.write("a/p.html", "xy".getBytes()); }
+      assertEquals(written + 2, bytes.get());
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package markDownTests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+//A page layout split once into literal and {{slot}} segments; rendering a page is one write per segment.
+public record PageTemplate(String source, List<Segment> segments){
+  public enum Slot{ title, sidebar, content, prev, next, root;
+    String token(){ return "{{" + name() + "}}"; }
+  }
+  //root leads from the page back to the output root, for links to assets: "" or "../"
+  public record Page(String title, String sidebar, String content, String prev, String next, String root){
+    String get(Slot s){
+      return switch (s){
+        case title -> title;
+        case sidebar -> sidebar;
+        case content -> content;
+        case prev -> prev;
+        case next -> next;
+        case root -> root;
+      };
+    }
+  }
+  sealed interface Segment{}
+  record Literal(String text) implements Segment{}
+  record Placeholder(Slot slot) implements Segment{}
+
+  //Byte for byte the page of the former HTML_HEADER and HTML_FOOTER: the content runs into the nav links.
+  public static final String defaultLayout= """
+    <!DOCTYPE html>
+    <html lang="en">
+    <head>
+      <meta charset="UTF-8">
+      <title>{{title}}</title>
+      <link rel="stylesheet" href="{{root}}styles.css">
+    </head>
+    <body>
+      <div id="sidebar">
+      {{sidebar}}
+      </div>
+      <div id="content" class="markdown-content">
+    {{content}}\
+          <div class="nav-links">
+          {{prev}} {{next}}
+          </div>
+        </div>
+      </body>
+    </html>
+    """;
+  public static PageTemplate standard(){ return compile(defaultLayout); }
+  public static PageTemplate load(Path layout){ return compile(new LoadFile().loadText(layout)); }
+  public static PageTemplate compile(String source){
+    List<Segment> segments= new ArrayList<>();
+    int from= 0;
+    int open= source.indexOf("{{");
+    while (open != -1){
+      int close= source.indexOf("}}", open);
+      if (close == -1){ throw new IllegalArgumentException("Unclosed {{ at offset "+open); }
+      var name= source.substring(open + 2, close).trim();
+      var at= open;
+      var slot= List.of(Slot.values()).stream().filter(s->s.name().equals(name)).findFirst()
+        .orElseThrow(()->new IllegalArgumentException("Unknown slot {{"+name+"}} at offset "+at
+          +"; valid slots are "+List.of(Slot.values())));
+      if (open > from){ segments.add(new Literal(source.substring(from, open))); }
+      segments.add(new Placeholder(slot));
+      from= close + 2;
+      open= source.indexOf("{{", from);
+    }
+    if (from < source.length()){ segments.add(new Literal(source.substring(from))); }
+    return new PageTemplate(source, List.copyOf(segments));
+  }
+  //For edits that are the same for every page, as asset fingerprints: done once on the layout.
+  public PageTemplate rewrite(UnaryOperator<String> f){ return compile(f.apply(source)); }
+
+  public void write(Writer w, Page page) throws IOException{
+    for (var s : segments){
+      switch (s){
+        case Literal l -> w.write(l.text());
+        case Placeholder p -> w.write(page.get(p.slot()));
+      }
+    }
+  }
+  //Pages render ahead of the writer on other threads, and Output.Dir compares the whole page with the
+  //file on disk before writing, so a page is rendered into its own buffer, not streamed to the output.
+  public byte[] render(Page page){
+    int size= source.length() + page.sidebar().length() + page.content().length() + 256;
+    var bytes= new ByteArrayOutputStream(size + (size >> 3));
+    try (var w= new OutputStreamWriter(bytes, StandardCharsets.UTF_8)){ write(w, page); }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+    return bytes.toByteArray();
+  }
+}
@@ -0,0 +1,40 @@
+package markDownTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class PageTemplateTest {
+  //The page as HtmlCreator built it with String.format before PageTemplate.
+  static final String header= """
+    <!DOCTYPE html>
+    <html lang="en">
+    <head>
+      <meta charset="UTF-8">
+      <title>%s</title>
+      <link rel="stylesheet" href="styles.css">
+    </head>
+    <body>
+      <div id="sidebar">
+      %s
+      </div>
+      <div id="content" class="markdown-content">
+    """;
+  static final String footer= """
+          <div class="nav-links">
+          %s %s
+          </div>
+        </div>
+      </body>
+    </html>
+    """;
+  @Test void standardLayoutKeepsTheFormerBytes(){
+    var page= new PageTemplate.Page("Chapter 1 :: Über", "<div class=\"sidebar-entry\">x</div>\n",
+      "<h1>Über</h1>\n<p>text</p>\n", "<a href=\"01_01.html\">Previous</a>", "<span class=\"disabled\">Next</span>", "");
+    var expected= String.format(header, page.title(), page.sidebar()) + page.content()
+      + String.format(footer, page.prev(), page.next());
+    assertEquals(expected, new String(PageTemplate.standard().render(page), StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,115 @@
+package markDownTests;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+//Append-only history of timings, one csv line per sample: commit,epochMillis,kind,id,nanos.
+//kind is "snippet" for tour snippets and "stage" for build stages.
+//  PerfStore [threshold=0.2] [window=5] [minMillis=5]
+//flags what got slower on the current commit than the median of the previous window commits,
+//by more than threshold and by more than minMillis, so that millisecond noise is not reported.
+public record PerfStore(Path file){
+  public static PerfStore standard(){ return new PerfStore(Path.of("tmpOut","perf.csv")); }
+  public record Sample(String commit, long time, String kind, String id, long nanos){
+    String csv(){ return String.join(",", commit, time+"", kind, id, nanos+""); }
+    static Sample parse(String line){
+      var p= line.split(",");
+      return new Sample(p[0], Long.parseLong(p[1]), p[2], p[3], Long.parseLong(p[4]));
+    }
+  }
+  public record Regression(String kind, String id, long baseline, long current){
+    public double ratio(){ return current / (double)baseline; }
+    @Override public String toString(){
+      return String.format("%-7s %-60s %9.1f ms -> %9.1f ms  (+%.0f%%)", kind, id, baseline / 1e6, current / 1e6, (ratio() - 1) * 100);
+    }
+  }
+  public void append(String kind, Map<String,Long> nanos){
+    //samples of an unknown commit would be compared against the wrong history
+    var commit= currentCommit();
+    if (commit.isEmpty()){ Log.warn("No git commit to record "+kind+" timings under, "+file+" not updated"); return; }
+    long now= System.currentTimeMillis();
+    append(nanos.entrySet().stream().map(e->new Sample(commit.get(), now, kind, e.getKey(), e.getValue())).toList());
+  }
+  public void append(List<Sample> samples){
+    var text= samples.stream().map(Sample::csv).collect(Collectors.joining("\n", "", "\n"));
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      Files.writeString(file, text, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  public List<Sample> load(){
+    if (!Files.exists(file)){ return List.of(); }
+    try (var lines= Files.lines(file)){ return lines.filter(l->!l.isBlank()).map(Sample::parse).toList(); }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  //Most recent duration of each id of the given kind.
+  public Map<String,Long> latest(String kind){
+    return load().stream().filter(s->s.kind().equals(kind))
+      .collect(Collectors.toMap(Sample::id, Sample::nanos, (a,b)->b));
+  }
+  public List<Regression> compare(String commit, double threshold, int window, long minNanos){
+    var byCommit= new LinkedHashMap<String,List<Sample>>();//file order is chronological
+    for (var s : load()){ byCommit.computeIfAbsent(s.commit(), k->new ArrayList<>()).add(s); }
+    var current= byCommit.remove(commit);
+    if (current == null){ return List.of(); }
+    var previous= new ArrayList<>(byCommit.values());
+    var recent= previous.subList(Math.max(0, previous.size() - window), previous.size());
+    var now= medians(current);
+    Map<String,List<Long>> history= new LinkedHashMap<>();
+    for (var samples : recent){
+      medians(samples).forEach((k,v)->history.computeIfAbsent(k, x->new ArrayList<>()).add(v));
+    }
+    List<Regression> res= new ArrayList<>();
+    now.forEach((key, nanos)->{
+      var past= history.get(key);
+      if (past == null){ return; }
+      long baseline= median(past);
+      if (nanos > baseline * (1 + threshold) && nanos - baseline > minNanos){
+        var parts= key.split("\t");
+        res.add(new Regression(parts[0], parts[1], baseline, nanos));
+      }
+    });
+    res.sort(Comparator.comparingDouble(Regression::ratio).reversed());
+    return res;
+  }
+  private static Map<String,Long> medians(List<Sample> samples){
+    return samples.stream().collect(Collectors.groupingBy(s->s.kind()+"\t"+s.id(), LinkedHashMap::new,
+      Collectors.collectingAndThen(Collectors.mapping(Sample::nanos, Collectors.toList()), PerfStore::median)));
+  }
+  private static long median(List<Long> values){
+    var sorted= values.stream().sorted().toList();
+    return sorted.get(sorted.size() / 2);
+  }
+  //git itself resolves worktrees, packed refs and detached heads; empty outside a git checkout.
+  public static Optional<String> currentCommit(){
+    try {
+      var git= new ProcessBuilder("git", "rev-parse", "--verify", "HEAD").redirectError(ProcessBuilder.Redirect.DISCARD).start();
+      var commit= new String(git.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+      return git.waitFor() == 0 && !commit.isEmpty() ? Optional.of(commit) : Optional.empty();
+    }
+    catch (IOException e){ return Optional.empty(); }
+    catch (InterruptedException e){ Thread.currentThread().interrupt(); return Optional.empty(); }
+  }
+  public static void main(String[] args){
+    double threshold= args.length > 0 ? Double.parseDouble(args[0]) : 0.2;
+    int window= args.length > 1 ? Integer.parseInt(args[1]) : 5;
+    long minNanos= (args.length > 2 ? Long.parseLong(args[2]) : 5) * 1_000_000;
+    var commit= currentCommit().orElseThrow(()->new IllegalStateException("No current commit: run PerfStore in a git checkout with git on the path"));
+    var regressions= standard().compare(commit, threshold, window, minNanos);
+    regressions.forEach(System.out::println);
+    System.out.println(regressions.size()+" regressions over "+(int)(threshold * 100)+"% on "+commit);
+    if (!regressions.isEmpty()){ System.exit(1); }
+  }
+}
@@ -0,0 +1,29 @@
+package markDownTests;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+//Writes file.gz next to each file, so a static server can send precompressed bytes directly.
+class Precompressor {
+  static void gzipAll(List<Path> files){ files.parallelStream().forEach(Precompressor::gzip); }
+  static Path sibling(Path file){ return file.resolveSibling(file.getFileName() + ".gz"); }
+  static void gzip(Path file){
+    var target= sibling(file);
+    var tmp= target.resolveSibling(target.getFileName() + ".tmp");
+    try {
+      try (var out= bestCompression(Files.newOutputStream(tmp))){ Files.copy(file, out); }
+      Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  private static GZIPOutputStream bestCompression(OutputStream out) throws IOException{
+    return new GZIPOutputStream(out, 1 << 16){{ def.setLevel(Deflater.BEST_COMPRESSION); }};
+  }
+}
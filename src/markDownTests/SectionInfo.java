@@ -0,0 +1,26 @@
+package markDownTests;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+record SectionInfo(
+  String chapterTitle, String sectionTitle,
+  int chapterNumber, int sectionNumber, String path, List<String> lines){
+  public String pageTitle(){ return chapterTitle + " :: " + sectionTitle; }
+  public String sideBarEntry(String href, String displayName) {
+    String sideBar= "<div class=\"sidebar-entry\"><a href=\"%s\">%s</a></div>\n";
+    return String.format(sideBar, href, displayName);
+  }
+  public String sideBarChapter(String href) {
+    String sideBar= "<div class=\"sidebar-chapter\"><a href=\"%s\">%s</a></div>\n";
+    return String.format(sideBar, href, chapterTitle);
+  }
+  public String asPrevLink(String from){ return "<a href=\""+SiteLayout.href(from, path)+"\">Previous</a>"; }
+  public String asNextLink(String from){ return "<a href=\""+SiteLayout.href(from, path)+"\">Next</a>"; }
+
+  public String generatePage(MarkdownEngine engine){
+    String text= lines.stream().collect(Collectors.joining("\n"));
+    return engine.render(text);
+  }
+
+}
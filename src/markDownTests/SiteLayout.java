@@ -0,0 +1,62 @@
+package markDownTests;
+
+import java.text.Normalizer;
+import java.util.List;
+
+//Where each section page goes, relative to the output root.
+//  flat:   01_02.html, all pages in one directory; at most 99 chapters of 99 sections.
+//  nested: 001-chapter-slug/02-section-slug.html, one directory per chapter; numbers are
+//          padded to the digits of the chapter (section) count, so names sort in reading order.
+//Nested pages show a sidebar of the chapters with only the current chapter expanded.
+public enum SiteLayout{ flat, nested;
+  String path(String chapterTitle, String sectionTitle, int chapter, int chapters, int section, int sections){
+    return switch (this){
+      case flat -> {
+        assert chapter <= 99 : "flat layout holds at most 99 chapters, use nested";
+        assert section <= 99 : "flat layout holds at most 99 sections per chapter, use nested";
+        yield String.format("%02d_%02d.html", chapter, section);
+      }
+      case nested -> number(chapter, chapters)+"-"+slug(chapterTitle)+"/"
+        +number(section, sections)+"-"+slug(sectionTitle)+".html";
+    };
+  }
+  //Pages with the same scope share their sidebar.
+  int sidebarScope(SectionInfo page){
+    return switch (this){
+      case flat -> 0;
+      case nested -> page.chapterNumber();
+    };
+  }
+  String sidebar(List<SectionInfo> sections, SectionInfo page){
+    var res= new StringBuilder();
+    for (var s : sections){
+      switch (this){
+        case flat -> res.append(s.sideBarEntry(href(page.path(), s.path()), s.pageTitle()));
+        case nested -> {
+          if (s.sectionNumber() == 1){ res.append(s.sideBarChapter(href(page.path(), s.path()))); }
+          if (s.chapterNumber() == page.chapterNumber()){ res.append(s.sideBarEntry(href(page.path(), s.path()), s.sectionTitle())); }
+        }
+      }
+    }
+    return res.toString();
+  }
+  static String number(int n, int count){
+    int width= Math.max(2, Integer.toString(count).length());
+    return String.format("%0"+width+"d", n);
+  }
+  //Lower case ascii words joined by '-'; the number in front keeps equal titles apart.
+  static String slug(String title){
+    var ascii= Normalizer.normalize(title, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+    var slug= ascii.toLowerCase().replaceAll("[^a-z0-9]+", "-").replaceAll("^-|-$", "");
+    if (slug.length() > 48){ slug= slug.substring(0, 48).replaceAll("-[^-]*$|-$", ""); }
+    return slug.isEmpty() ? "page" : slug;
+  }
+  //Prefix leading from a page back to the output root: "" or "../".
+  static String root(String path){ return "../".repeat((int)path.chars().filter(c->c == '/').count()); }
+  //Link from the page at path from to the page at path to.
+  static String href(String from, String to){
+    var dir= from.substring(0, from.lastIndexOf('/') + 1);
+    boolean sameDir= to.startsWith(dir) && to.indexOf('/', dir.length()) == -1;
+    return sameDir ? to.substring(dir.length()) : root(from) + to;
+  }
+}
@@ -0,0 +1,91 @@
+package markDownTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import markDownTests.SyntheticCorpus.Size;
+
+class SiteLayoutTest {
+  static final Pattern href= Pattern.compile("href=\"([^\"]+)\"");
+
+  //One file per chapter, each a few short sections
+  static List<Chapter> corpus(int chapters, int sections){
+    return new SyntheticCorpus(42, chapters, 1, Size.of(sections), Size.of(1), Size.of(1), Size.of(0), Size.of(1), 0, 0).chapters();
+  }
+  static List<String> pages(Path root){
+    try (var files= Files.walk(root)){
+      return files.filter(p->p.toString().endsWith(".html")).map(p->root.relativize(p).toString().replace('\\', '/')).sorted().toList();
+    }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  static String read(Path p){
+    try { return Files.readString(p); }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  static HtmlCreator creator(Path root, SiteLayout site){
+    return new HtmlCreator(Output.dir(root), Assets.none(), MarkdownEngine.standard(), PageTemplate.standard(), site);
+  }
+
+  @Test void flatKeepsTheTwoDigitNames(){
+    try (var tmp= TempDir.create("siteLayout")){
+      var root= tmp.path();
+      var chapters= corpus(2, 3);
+      creator(root, SiteLayout.flat).generateHtmlPages(chapters);
+      assertEquals(List.of("01_01.html", "01_02.html", "01_03.html", "02_01.html", "02_02.html", "02_03.html"), pages(root));
+      var page= read(root.resolve("01_02.html"));
+      var last= chapters.get(1).title()+" :: "+chapters.get(1).sections().get(2).title();
+      assertTrue(page.contains("<a href=\"01_01.html\">Previous</a>"), page);
+      assertTrue(page.contains("<a href=\"02_03.html\">"+last+"</a>"), page);
+      assertTrue(page.contains("href=\"styles.css\""), page);
+    }
+  }
+  @Test void names(){
+    assertEquals("types-objects", SiteLayout.slug("Types & Objects"));
+    assertEquals("uber-objects", SiteLayout.slug("  Über Öbjects!"));
+    assertEquals("page", SiteLayout.slug("::"));
+    assertEquals("007", SiteLayout.number(7, 120));
+    assertEquals("07", SiteLayout.number(7, 9));
+    assertEquals("02_b.html", SiteLayout.href("01_a.html", "02_b.html"));
+    assertEquals("b.html", SiteLayout.href("01/a.html", "01/b.html"));
+    assertEquals("../02/b.html", SiteLayout.href("01/a.html", "02/b.html"));
+  }
+  //10.800 sections of tour like files: every page exists once, in its chapter directory, and every link resolves.
+  @Test void nestedScalesPast99x99(){
+    int chapters= 120, sections= 90;
+    try (var tmp= TempDir.create("siteLayout")){
+      var root= tmp.path();
+      var corpus= SyntheticCorpus.tourLike(chapters * sections).withFilesPerChapter(sections).chapters();
+      assertEquals(chapters, corpus.size());
+      creator(root, SiteLayout.nested).generateHtmlPages(corpus);
+      var pages= pages(root);
+      assertEquals(chapters * sections, pages.size());
+      assertTrue(pages.getFirst().startsWith("001-chapter-1/01-"), pages.getFirst());
+      assertTrue(pages.getLast().startsWith("120-chapter-120/90-"), pages.getLast());
+      assertEquals(chapters, pages.stream().map(p->p.substring(0, p.indexOf('/'))).distinct().count());
+      var known= new HashSet<>(pages);
+      var broken= new ArrayList<String>();
+      for (var p : pages){
+        var html= read(root.resolve(p));
+        assertTrue(html.contains("href=\"../styles.css\""), p);
+        var links= href.matcher(html).results().map(m->m.group(1)).filter(l->!l.endsWith(".css")).toList();
+        assertTrue(links.size() >= chapters + sections, p);//chapters and the sections of the current one
+        for (var l : links){
+          var target= Path.of(p).resolveSibling(l).normalize().toString().replace('\\', '/');
+          if (!known.contains(target)){ broken.add(p+" -> "+l); }
+        }
+      }
+      assertEquals(List.of(), broken);
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package markDownTests;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+//A Fearless program embedded in a tour chapter as @Test void name(){ run(args..., """code"""); }
+public record Snippet(Path file, String className, String name, int line, int endLine, List<String> args, String code){
+  public Snippet{ args= List.copyOf(args); }
+  public String id(){ return className + "." + name; }
+
+  private static final Pattern test= Pattern.compile(
+    "@Test\\s+void\\s+(\\w+)\\s*\\(\\s*\\)\\s*\\{\\s*run\\(((?:\\s*\"[^\"]*\"\\s*,)*)\\s*\"\"\"\\s*$");
+  private static final Pattern arg= Pattern.compile("\"([^\"]*)\"");
+  private static final String textBlock= "\"\"\"";
+
+  public static List<Snippet> scanAll(Path root){
+    return DocumentProcessor.walk(root, ".java").stream()
+      .sorted(Comparator.comparing(Path::toString))
+      .flatMap(p->scan(p).stream())
+      .toList();
+  }
+  public static List<Snippet> scan(Path file){ return scan(file, new LoadFile().loadLines(file)); }
+  public static List<Snippet> scan(Path file, List<String> lines){
+    var className= file.getFileName().toString().replace(".java", "");
+    List<Snippet> res= new ArrayList<>();
+    for (int i= 0; i < lines.size(); i++){
+      if (TextTag.CodeStart.notMatch(lines.get(i))){ continue; }
+      Matcher m= test.matcher(lines.get(i));
+      if (!m.find()){ continue; }
+      var args= arg.matcher(m.group(2)).results().map(r->r.group(1)).toList();
+      int start= i + 1;
+      int end= start;
+      while (end < lines.size() && !lines.get(end).contains(textBlock)){ end++; }
+      if (end == lines.size()){ throw new IllegalArgumentException("Unclosed text block for "+m.group(1)+" in "+file+":"+(i + 1)); }
+      var code= textBlockContent(lines.subList(start, end), lines.get(end));
+      res.add(new Snippet(file, className, m.group(1), i + 1, end + 1, args, code));
+      i= end;
+    }
+    return res;
+  }
+  //Same result javac gives for the text block: incidental indentation removed, then escapes translated.
+  static String textBlockContent(List<String> body, String closingLine){
+    var closingPrefix= closingLine.substring(0, closingLine.indexOf(textBlock));
+    var raw= new StringBuilder();
+    for (var l : body){ raw.append(l).append('\n'); }
+    raw.append(closingPrefix);
+    return raw.toString().stripIndent().translateEscapes();
+  }
+}
@@ -0,0 +1,81 @@
+package markDownTests;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//Every tour snippet with its expectation, precomputed from the sources.
+//One line per snippet: id, hasMain, args, print, err, code; tabs, newlines and backslashes escaped.
+//TourHelper looks snippets up by id (class.method) and takes the entry only if the code is the same,
+//so a stale manifest only costs a derivation. The first line is the hash of the Expectation code that
+//derived the entries; a manifest of other code is ignored, so it always agrees with Expectation.of.
+//  SnippetManifest [root]
+public record SnippetManifest(List<Entry> entries, Map<String,Entry> byId){
+  public record Entry(String id, List<String> args, String code, Expectation expectation){
+    public Entry{ args= List.copyOf(args); }
+    static Entry of(Snippet s){ return new Entry(s.id(), s.args(), s.code(), Expectation.of(s.code())); }
+  }
+  public static final Path standardFile= Path.of("tmpOut","snippets.tsv");
+  static final String version= "version\t"+Hashes.sha256(Expectation.class);
+  public SnippetManifest(List<Entry> entries){
+    this(List.copyOf(entries), entries.stream().collect(Collectors.toUnmodifiableMap(Entry::id, Function.identity(), (a,b)->a)));
+  }
+  public static SnippetManifest empty(){ return new SnippetManifest(List.of()); }
+  public Optional<Expectation> expectation(String id, String code){
+    var e= byId.get(id);
+    return e != null && e.code().equals(code) ? Optional.of(e.expectation()) : Optional.empty();
+  }
+
+  public static SnippetManifest build(Path root){ return new SnippetManifest(Snippet.scanAll(root).stream().map(Entry::of).toList()); }
+  public void save(Path file){
+    var text= entries.stream().map(e->String.join("\t",
+        e.id(), e.expectation().hasMain()+"", escape(String.join("\n", e.args())),
+        escape(e.expectation().print()), escape(e.expectation().err()), escape(e.code())))
+      .collect(Collectors.joining("\n", version+"\n", "\n"));
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      Files.writeString(file, text);
+    }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  //Empty if written by other Expectation code.
+  public static SnippetManifest load(Path file){
+    var lines= new LoadFile().loadLines(file);
+    if (lines.isEmpty() || !lines.getFirst().equals(version)){
+      Log.info(file+" was derived by other Expectation code, ignored until regenerated");
+      return empty();
+    }
+    return new SnippetManifest(lines.stream().skip(1).filter(l->!l.isEmpty()).map(SnippetManifest::parse).toList());
+  }
+  //The manifest at file, or an empty one if it was not generated.
+  public static SnippetManifest loadOrEmpty(Path file){ return Files.exists(file) ? load(file) : empty(); }
+  private static Entry parse(String line){
+    var p= line.split("\t", -1);
+    var args= unescape(p[2]);
+    return new Entry(p[0], args.isEmpty() ? List.of() : List.of(args.split("\n", -1)), unescape(p[5]),
+      new Expectation(unescape(p[3]), unescape(p[4]), Boolean.parseBoolean(p[1])));
+  }
+  static String escape(String s){ return s.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r"); }
+  static String unescape(String s){
+    var res= new StringBuilder(s.length());
+    for (int i= 0; i < s.length(); i++){
+      char c= s.charAt(i);
+      if (c != '\\' || i + 1 == s.length()){ res.append(c); continue; }
+      char n= s.charAt(++i);
+      res.append(switch (n){ case 't' -> '\t'; case 'n' -> '\n'; case 'r' -> '\r'; default -> n; });
+    }
+    return res.toString();
+  }
+  public static void main(String[] args){
+    var root= args.length == 0 ? Path.of("src","chaptersOfZeroToHero") : Path.of(args[0]);
+    var manifest= build(root);
+    manifest.save(standardFile);
+    System.out.println(manifest.entries().size()+" snippets -> "+standardFile);
+  }
+}
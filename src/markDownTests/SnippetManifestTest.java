@@ -0,0 +1,56 @@
+package markDownTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+class SnippetManifestTest {
+  static void write(Path p, String text){
+    try { Files.writeString(p, text); }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  @Test void savedManifestLoadsTheSameEntries(){
+    try (var tmp= TempDir.create("manifest")){
+      SyntheticCorpus.tourLike(8).writeTo(tmp.resolve("src"));
+      var built= SnippetManifest.build(tmp.resolve("src"));
+      assertTrue(!built.entries().isEmpty());
+      built.save(tmp.resolve("snippets.tsv"));
+      assertEquals(built.entries(), SnippetManifest.load(tmp.resolve("snippets.tsv")).entries());
+    }
+  }
+  //Entries derived by other Expectation code could disagree with Expectation.of: not used.
+  @Test void manifestOfOtherExpectationCodeIsIgnored(){
+    try (var tmp= TempDir.create("manifest")){
+      SyntheticCorpus.tourLike(8).writeTo(tmp.resolve("src"));
+      var file= tmp.resolve("snippets.tsv");
+      SnippetManifest.build(tmp.resolve("src")).save(file);
+      var lines= new LoadFile().loadLines(file);
+      var edited= new ArrayList<>(lines);
+      edited.set(0, "version\tother");
+      write(file, String.join("\n", edited));
+      assertEquals(List.of(), SnippetManifest.load(file).entries());
+      write(file, String.join("\n", lines.subList(1, lines.size())));
+      assertEquals(List.of(), SnippetManifest.load(file).entries());
+    }
+  }
+  //Looked up by id; an entry whose code was edited since is not used.
+  @Test void expectationOnlyForTheSameCode(){
+    try (var tmp= TempDir.create("manifest")){
+      SyntheticCorpus.tourLike(8).writeTo(tmp.resolve("src"));
+      var manifest= SnippetManifest.build(tmp.resolve("src"));
+      var e= manifest.entries().getFirst();
+      assertEquals(Optional.of(e.expectation()), manifest.expectation(e.id(), e.code()));
+      assertEquals(Optional.empty(), manifest.expectation(e.id(), e.code()+"//edited\n"));
+      assertEquals(Optional.empty(), manifest.expectation("ZH_999Missing.snippet1", e.code()));
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package markDownTests;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+//Which --SECTION-- owns each source line, and which snippets each section contains.
+//Built from a Document, so sections are the ones Extractor and DocumentProcessor found, numbered
+//as HtmlCreator numbers pages; files are absolute normal paths, as in Document.
+//  SourceMap [root] [section <chapter.section> | line <file> <n>]
+public final class SourceMap {
+  public record Section(int chapterNumber, int sectionNumber, String chapterTitle, String sectionTitle,
+      Path file, int firstLine, int lastLine){
+    public String key(){ return chapterNumber + "." + sectionNumber; }
+    public String title(){ return chapterTitle + " :: " + sectionTitle; }
+  }
+  public record SnippetEntry(String id, Path file, int line, int endLine, String section){}
+  public static final Path standardFile= Path.of("tmpOut","sourceMap.tsv");
+
+  private final List<Section> sections;
+  private final List<SnippetEntry> snippets;
+  private final Map<String,Section> byKey= new HashMap<>();
+  private final Map<String,List<String>> snippetsByKey= new HashMap<>();
+  private final Map<String,SnippetEntry> snippetsById= new HashMap<>();
+  private final Map<Path,int[]> lineOwners= new HashMap<>();//index in sections for each line, -1 for none
+
+  public SourceMap(List<Section> sections, List<SnippetEntry> snippets){
+    this.sections= List.copyOf(sections);
+    this.snippets= List.copyOf(snippets);
+    for (int i= 0; i < this.sections.size(); i++){
+      var s= this.sections.get(i);
+      byKey.put(s.key(), s);
+      var file= Document.key(s.file());
+      var owners= lineOwners.get(file);
+      if (owners == null || owners.length <= s.lastLine()){
+        int old= owners == null ? 0 : owners.length;
+        owners= owners == null ? new int[s.lastLine() + 1] : Arrays.copyOf(owners, s.lastLine() + 1);
+        Arrays.fill(owners, old, owners.length, -1);
+        lineOwners.put(file, owners);
+      }
+      Arrays.fill(owners, s.firstLine(), s.lastLine() + 1, i);
+    }
+    for (var e : this.snippets){
+      snippetsById.put(e.id(), e);
+      snippetsByKey.computeIfAbsent(e.section(), k->new ArrayList<>()).add(e.id());
+    }
+  }
+  public List<Section> sections(){ return sections; }
+  public List<SnippetEntry> snippets(){ return snippets; }
+  public Optional<Section> section(String key){ return Optional.ofNullable(byKey.get(key)); }
+  public List<String> snippetsOf(String sectionKey){ return snippetsByKey.getOrDefault(sectionKey, List.of()); }
+  public Optional<Section> sectionOf(String snippetId){
+    return Optional.ofNullable(snippetsById.get(snippetId)).flatMap(e->section(e.section()));
+  }
+  //line is 1 based, as in editors and stack traces
+  public Optional<Section> sectionAt(Path file, int line){
+    var owners= lineOwners.get(Document.key(file));
+    if (owners == null || line < 0 || line >= owners.length || owners[line] == -1){ return Optional.empty(); }
+    return Optional.of(sections.get(owners[line]));
+  }
+
+  public static SourceMap build(Path root){ return of(new DocumentProcessor().process(root)); }
+  public static SourceMap build(List<Path> files){ return of(new DocumentProcessor().process(files)); }
+  //Numbered as Document.assemble joins the parts: lead sections continue the chapter before.
+  public static SourceMap of(Document doc){
+    List<Section> sections= new ArrayList<>();
+    List<SnippetEntry> snippets= new ArrayList<>();
+    int chapter= 0;
+    int section= 0;
+    String chapterTitle= "";
+    for (var p : doc.parts()){
+      int first= sections.size();
+      var lines= p.sectionLines().iterator();
+      for (var s : p.leadSections()){
+        sections.add(section(chapter, ++section, chapterTitle, s, p.file(), lines.next()));
+      }
+      for (var c : p.chapters()){
+        chapter++;
+        section= 0;
+        chapterTitle= c.title();
+        for (var s : c.sections()){ sections.add(section(chapter, ++section, chapterTitle, s, p.file(), lines.next())); }
+      }
+      var local= sections.subList(first, sections.size());
+      for (var s : p.snippets()){
+        var owner= local.stream().filter(x->x.firstLine() <= s.line() && s.line() <= x.lastLine()).findFirst();
+        snippets.add(new SnippetEntry(s.id(), p.file(), s.line(), s.endLine(), owner.map(Section::key).orElse("")));
+      }
+    }
+    return new SourceMap(sections, snippets);
+  }
+  private static Section section(int chapter, int section, String chapterTitle, Chapter.Section s, Path file, Document.Lines lines){
+    return new Section(chapter, section, chapterTitle, s.title(), file, lines.first(), lines.last());
+  }
+
+  public void save(Path file){
+    var lines= Stream.concat(
+      sections.stream().map(s->String.join("\t", "S", s.chapterNumber()+"", s.sectionNumber()+"",
+        clean(s.chapterTitle()), clean(s.sectionTitle()), s.file().toString(), s.firstLine()+"", s.lastLine()+"")),
+      snippets.stream().map(e->String.join("\t", "T", e.id(), e.file().toString(), e.line()+"", e.endLine()+"", e.section())));
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      Files.writeString(file, lines.collect(Collectors.joining("\n", "", "\n")));
+    }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  private static String clean(String title){ return title.replace('\t', ' '); }
+  public static SourceMap load(Path file){
+    List<Section> sections= new ArrayList<>();
+    List<SnippetEntry> snippets= new ArrayList<>();
+    for (var l : new LoadFile().loadLines(file)){
+      var p= l.split("\t", -1);
+      if (p[0].equals("S")){
+        sections.add(new Section(Integer.parseInt(p[1]), Integer.parseInt(p[2]), p[3], p[4],
+          Path.of(p[5]), Integer.parseInt(p[6]), Integer.parseInt(p[7])));
+      }
+      if (p[0].equals("T")){
+        snippets.add(new SnippetEntry(p[1], Path.of(p[2]), Integer.parseInt(p[3]), Integer.parseInt(p[4]), p[5]));
+      }
+    }
+    return new SourceMap(sections, snippets);
+  }
+  public static void main(String[] args){
+    var root= Path.of(args.length > 0 ? args[0] : "src/chaptersOfZeroToHero");
+    var map= build(root);
+    map.save(standardFile);
+    if (args.length > 2 && args[1].equals("section")){
+      System.out.println(map.section(args[2]).map(Section::title).orElse("no section "+args[2]));
+      map.snippetsOf(args[2]).forEach(System.out::println);
+      return;
+    }
+    if (args.length > 3 && args[1].equals("line")){
+      var s= map.sectionAt(Path.of(args[2]), Integer.parseInt(args[3]));
+      System.out.println(s.map(x->x.key()+" "+x.title()).orElse("no section owns that line"));
+      return;
+    }
+    System.out.println(map.sections().size()+" sections, "+map.snippets().size()+" snippets -> "+standardFile);
+  }
+}
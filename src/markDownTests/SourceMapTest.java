@@ -0,0 +1,44 @@
+package markDownTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+class SourceMapTest {
+  static List<String> lines(Path p){
+    try { return Files.readAllLines(p); }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  //Sections start on their tag line and number as the pages do; every snippet lies in its section.
+  @Test void sectionsAndSnippetsOfTheDocument(){
+    try (var tmp= TempDir.create("sourceMap")){
+      var src= tmp.resolve("src");
+      SyntheticCorpus.tourLike(40).withFilesPerChapter(6).writeTo(src);
+      var doc= new DocumentProcessor().process(src);
+      var map= SourceMap.of(doc);
+      assertEquals(doc.chapters().stream().mapToInt(c->c.sections().size()).sum(), map.sections().size());
+      for (var s : map.sections()){
+        var tag= lines(s.file()).get(s.firstLine() - 1);
+        assertTrue(TextTag.Section.match(tag) && tag.contains(s.sectionTitle()), s+" starts at "+tag);
+        var chapter= doc.chapters().get(s.chapterNumber() - 1);
+        assertEquals(chapter.sections().get(s.sectionNumber() - 1).title(), s.sectionTitle());
+        assertEquals(Optional.of(s), map.sectionAt(s.file(), s.lastLine()));
+      }
+      assertTrue(!map.snippets().isEmpty());
+      for (var e : map.snippets()){
+        assertEquals(map.sectionOf(e.id()), map.sectionAt(e.file(), e.line()));
+        assertTrue(map.sectionOf(e.id()).isPresent(), e.id());
+      }
+      var relative= Path.of("").toAbsolutePath().relativize(map.sections().getFirst().file());
+      assertEquals(Optional.of(map.sections().getFirst()), map.sectionAt(relative, map.sections().getFirst().firstLine()));
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package markDownTests;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+//Generates tour chapter files in the ZH_NNN format, to measure how the doc pipeline scales.
+//Each file is generated from its own seed: the first n files are the same whatever the corpus size,
+//so the corpora of a scaling curve grow by adding files, not by changing them.
+//Only the first of every filesPerChapter files opens a chapter; the others continue it, as in the tour.
+//  SyntheticCorpus <dir> <files,files,...> [seed]
+//writes one corpus per size under dir/<files> and prints extract and render times per size.
+public record SyntheticCorpus(long seed, int files, int filesPerChapter,
+    Size sectionsPerFile, Size paragraphsPerSection, Size linesPerParagraph,
+    Size snippetsPerSection, Size linesPerSnippet, double omitRate, double tableRate){
+  //min + (max - min) * u^skew: skew 1 is uniform, larger skews give mostly small sizes and a long tail.
+  public record Size(int min, int max, double skew){
+    public Size{ assert 0 <= min && min <= max && skew > 0; }
+    public static Size of(int n){ return new Size(n, n, 1); }
+    public static Size uniform(int min, int max){ return new Size(min, max, 1); }
+    public static Size skewed(int min, int max, double skew){ return new Size(min, max, skew); }
+    int sample(Random r){ return min + (int)Math.round((max - min) * Math.pow(r.nextDouble(), skew)); }
+  }
+  //Roughly the shape of chaptersOfZeroToHero: one section per file, a few snippets, a long tail of large ones.
+  public static SyntheticCorpus tourLike(int files){
+    return new SyntheticCorpus(42, files, 8,
+      Size.of(1), Size.uniform(3, 12), Size.skewed(1, 8, 2),
+      Size.skewed(0, 8, 2), Size.skewed(3, 60, 3), 0.3, 0.05);
+  }
+  public SyntheticCorpus withFiles(int files){
+    return new SyntheticCorpus(seed, files, filesPerChapter, sectionsPerFile, paragraphsPerSection,
+      linesPerParagraph, snippetsPerSection, linesPerSnippet, omitRate, tableRate);
+  }
+  public SyntheticCorpus withFilesPerChapter(int filesPerChapter){
+    return new SyntheticCorpus(seed, files, filesPerChapter, sectionsPerFile, paragraphsPerSection,
+      linesPerParagraph, snippetsPerSection, linesPerSnippet, omitRate, tableRate);
+  }
+  public SyntheticCorpus withSeed(long seed){
+    return new SyntheticCorpus(seed, files, filesPerChapter, sectionsPerFile, paragraphsPerSection,
+      linesPerParagraph, snippetsPerSection, linesPerSnippet, omitRate, tableRate);
+  }
+  //ZH_00001Synthetic.java: a fixed width, so that names sort in order and do not depend on the corpus size.
+  public static final int maxFiles= 99_999;
+  public String className(int file){
+    assert 1 <= file && file <= maxFiles;
+    return String.format("ZH_%05dSynthetic", file);
+  }
+  public String source(int file){
+    assert 1 <= file && file <= files;
+    var r= new Random(seed * 1_000_003L + file);
+    var res= new StringBuilder(4096);
+    res.append("package chaptersOfZeroToHero;\n\n")
+      .append("import org.junit.jupiter.api.Test;\n")
+      .append("import static testHelpers.TourHelper.run;\n")
+      .append("class ").append(className(file)).append(" {\n")
+      .append(TextTag.Start.token()).append('\n');
+    if ((file - 1) % filesPerChapter == 0){
+      res.append(TextTag.Chapter.token()).append(" Chapter ").append((file - 1) / filesPerChapter + 1).append('\n');
+    }
+    int sections= Math.max(1, sectionsPerFile.sample(r));
+    int snippet= 0;
+    for (int s= 1; s <= sections; s++){
+      res.append(TextTag.Section.token()).append(' ').append(title(r)).append("\n\n");
+      res.append("### ").append(title(r)).append('\n');
+      int paragraphs= paragraphsPerSection.sample(r);
+      int snippets= snippetsPerSection.sample(r);
+      for (int p= 0; p < Math.max(paragraphs, snippets); p++){
+        if (p < paragraphs){ paragraph(r, res); }
+        if (r.nextDouble() < tableRate){ table(r, res); }
+        if (p < snippets){ snippet(r, res, ++snippet); }
+      }
+    }
+    return res.append(TextTag.End.token()).append("\n}\n").toString();
+  }
+  //What DocumentProcessor extracts from the files writeTo writes, without the files.
+  public List<Chapter> chapters(){
+    return Document.of(IntStream.rangeClosed(1, files).parallel().mapToObj(i->{
+      var text= source(i);
+      var file= Path.of(className(i)+".java");
+      var lines= text.lines().toList();
+      return DocumentProcessor.part(file, Hashes.sha256(text), Extractor.extractNumbered(lines.stream()), Snippet.scan(file, lines));
+    }).toList()).chapters();
+  }
+  public List<Path> writeTo(Path dir){
+    try { Files.createDirectories(dir); }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+    return IntStream.rangeClosed(1, files).parallel().mapToObj(i->{
+      var p= dir.resolve(className(i)+".java");
+      try { Files.writeString(p, source(i)); }
+      catch (IOException e){ throw new UncheckedIOException(e); }
+      return p;
+    }).toList();
+  }
+
+  static final List<String> words= List.of(
+    "tank", "direction", "rotation", "turret", "method", "object", "literal", "type", "number",
+    "string", "capability", "reference", "generic", "boolean", "list", "map", "the", "a", "of",
+    "to", "and", "is", "we", "can", "this", "that", "with", "every", "value", "sugar");
+  static String word(Random r){ return words.get(r.nextInt(words.size())); }
+  static String title(Random r){
+    var w= word(r);
+    return Character.toUpperCase(w.charAt(0)) + w.substring(1) + " " + word(r) + " " + word(r);
+  }
+  private void paragraph(Random r, StringBuilder res){
+    int lines= Math.max(1, linesPerParagraph.sample(r));
+    for (int l= 0; l < lines; l++){
+      int n= 6 + r.nextInt(14);
+      for (int w= 0; w < n; w++){
+        var word= word(r);
+        res.append(w == 0 ? "" : " ").append(r.nextInt(12) == 0 ? "`" + word + "`" : word);
+      }
+      res.append(".\n");
+    }
+    res.append('\n');
+  }
+  private static void table(Random r, StringBuilder res){
+    int cols= 2 + r.nextInt(3);
+    int rows= 1 + r.nextInt(6);
+    var header= new ArrayList<String>();
+    for (int c= 0; c < cols; c++){ header.add(word(r)); }
+    res.append("| ").append(String.join(" | ", header)).append(" |\n");
+    res.append("|").append("---|".repeat(cols)).append('\n');
+    for (int row= 0; row < rows; row++){
+      res.append('|');
+      for (int c= 0; c < cols; c++){ res.append(' ').append(word(r)).append(" |"); }
+      res.append('\n');
+    }
+    res.append('\n');
+  }
+  private void snippet(Random r, StringBuilder res, int n){
+    res.append("-------------------------").append(TextTag.CodeStart.token())
+      .append("@Test void snippet").append(n).append("() { run(\"\"\"\n");
+    int lines= Math.max(1, linesPerSnippet.sample(r));
+    boolean omit= r.nextDouble() < omitRate;
+    if (omit){ res.append("//").append(TextTag.OmitStart.token()).append('\n'); }
+    for (int l= 0; l < lines; l++){
+      if (omit && l == lines / 3){ res.append("//").append(TextTag.OmitEnd.token()).append('\n'); }
+      res.append(codeLine(r, l));
+    }
+    res.append("\"\"\"); }").append(TextTag.CodeEnd.token()).append("---------------------------------------\n");
+  }
+  private static String codeLine(Random r, int l){
+    return switch (r.nextInt(4)){
+      case 0 -> "T"+l+": { .m"+l+": T"+l+" -> this }\n";
+      case 1 -> "  ."+word(r)+l+": base.Nat -> "+r.nextInt(1000)+",\n";
+      case 2 -> "  //"+word(r)+" "+word(r)+" "+word(r)+"\n";
+      default -> "A"+l+": base.Main{ sys -> base.Debug#(`"+word(r)+"`) }\n";
+    };
+  }
+
+  public static void main(String[] args){
+    var dir= Path.of(args[0]);
+    var base= tourLike(1).withSeed(args.length > 2 ? Long.parseLong(args[2]) : 42);
+    System.out.printf("%8s %8s %12s %12s%n", "files", "sections", "extract ms", "render ms");
+    for (var n : args[1].split(",")){
+      var corpus= base.withFiles(Integer.parseInt(n.trim()));
+      var root= dir.resolve(n.trim());
+      corpus.writeTo(root.resolve("src"));
+      long start= System.nanoTime();
+      var chapters= new DocumentProcessor().processFiles(root.resolve("src"));
+      long extract= System.nanoTime();
+      new HtmlCreator(Output.dir(root.resolve("html")), Assets.none(), MarkdownEngine.standard(),
+        PageTemplate.standard(), SiteLayout.nested).generateHtmlPages(chapters);
+      long render= System.nanoTime();
+      int sections= chapters.stream().mapToInt(c->c.sections().size()).sum();
+      System.out.printf("%8s %8d %12.1f %12.1f%n", n.trim(), sections, (extract - start) / 1e6, (render - extract) / 1e6);
+    }
+  }
+}
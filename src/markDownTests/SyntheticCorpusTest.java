@@ -0,0 +1,18 @@
+package markDownTests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class SyntheticCorpusTest {
+  //Also across 999/1000, where a size dependent name width would rename every file.
+  @Test void firstFilesDoNotDependOnTheSize(){
+    var small= SyntheticCorpus.tourLike(999);
+    var large= SyntheticCorpus.tourLike(1000);
+    for (int i= 1; i <= 20; i++){
+      assertEquals(small.className(i), large.className(i));
+      assertEquals(small.source(i), large.source(i));
+    }
+    assertEquals("ZH_00001Synthetic", small.className(1));
+  }
+}
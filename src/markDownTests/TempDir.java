@@ -0,0 +1,22 @@
+package markDownTests;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+
+//A temporary directory for tests, deleted with its content on close.
+record TempDir(Path path) implements AutoCloseable {
+  static TempDir create(String prefix){
+    try { return new TempDir(Files.createTempDirectory(prefix)); }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  Path resolve(String other){ return path.resolve(other); }
+  @Override public void close(){
+    try (var files= Files.walk(path)){
+      for (var p : files.sorted(Comparator.reverseOrder()).toList()){ Files.delete(p); }
+    }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+}
@@ -1,9 +1,13 @@
 module my.fearlessTour {
     requires flexmark;
     requires flexmark.util.ast;
+    requires flexmark.util.data;
+    requires flexmark.util.misc;
     requires org.junit.jupiter.api;
+    requires org.junit.platform.launcher;
     requires flexmark.ext.tables;
     requires java.base;
     requires Coordinator;
     requires Commons;
+    provides org.junit.platform.launcher.LauncherDiscoveryListener with testHelpers.TourWarmup;
   }
\ No newline at end of file
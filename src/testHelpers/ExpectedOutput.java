@@ -0,0 +1,148 @@
+package testHelpers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+//Expected snippet output, as written in the //PRINT| and //ERROR| lines of a snippet.
+//[###] stands for any text, possibly empty or over several lines: machine dependent parts as file paths,
+//or output the tour does not show. The text around the wildcards must match exactly; there is no escape,
+//so a literal [###] cannot be expected. Printed and error output are both checked this way.
+//The text between wildcards is compiled once; matching reads the output once, char by char:
+//the first segment is compared in place, the middle ones are found leftmost with KMP, the last one
+//must end the output. Leftmost is safe with only any-text wildcards, so nothing is ever re-read.
+public final class ExpectedOutput {
+  public static final String wildcard= "[###]";
+  private final String expected;
+  private final List<String> segments;
+  private final int[][] failures;
+  private ExpectedOutput(String expected, List<String> segments){
+    this.expected= expected;
+    this.segments= segments;
+    this.failures= segments.stream().map(ExpectedOutput::failure).toArray(int[][]::new);
+  }
+  public static ExpectedOutput compile(String expected){
+    var segments= new ArrayList<String>();
+    int from= 0;
+    for (int at= expected.indexOf(wildcard); at != -1; at= expected.indexOf(wildcard, from)){
+      segments.add(expected.substring(from, at));
+      from= at + wildcard.length();
+    }
+    segments.add(expected.substring(from));
+    return new ExpectedOutput(expected, List.copyOf(segments));
+  }
+  public String expected(){ return expected; }
+  public Optional<Mismatch> match(CharSequence actual){
+    var m= new Matcher();
+    for (int i= 0; i < actual.length() && m.failed == null; i++){ m.accept(actual.charAt(i)); }
+    return m.finish();
+  }
+
+  //offset, line and column (1 based) are in the actual output
+  public record Mismatch(long offset, int line, int column, String message){
+    @Override public String toString(){ return "line "+line+", column "+column+": "+message; }
+  }
+  private final class Matcher {
+    private final int last= segments.size() - 1;
+    private final String tail= segments.get(last);
+    private long offset= 0;
+    private int line= 1, column= 1;
+    private int segment= 0;
+    private int matched= 0;
+    private long searchFrom= 0;
+    private int searchLine= 1, searchColumn= 1;
+    private Mismatch failed;
+    //the last tail.length() chars seen since the last middle segment, with their positions
+    private final char[] ring= new char[tail.length()];
+    private final int[] ringLine= new int[tail.length()], ringColumn= new int[tail.length()];
+    private long inTail= 0;
+    private Matcher(){ skipEmptyMiddles(); }
+
+    Optional<Mismatch> finish(){
+      if (failed != null){ return Optional.of(failed); }
+      if (last == 0){
+        if (matched == tail.length()){ return Optional.empty(); }
+        return fail(offset, line, column, "output ended, expected "+show(tail.substring(matched)));
+      }
+      if (segment < last){
+        if (segment == 0){ return fail(offset, line, column, "output ended, expected "+show(segments.get(0).substring(matched))); }
+        return fail(searchFrom, searchLine, searchColumn, "expected "+show(segments.get(segment))+" somewhere after here");
+      }
+      if (inTail < tail.length()){
+        return fail(offset, line, column, "output ended, expected it to end with "+show(tail));
+      }
+      if (tail.isEmpty()){ return Optional.empty(); }
+      int start= (int)(inTail % ring.length);
+      for (int i= 0; i < ring.length; i++){
+        int r= (start + i) % ring.length;
+        if (ring[r] != tail.charAt(i)){
+          return fail(offset - ring.length + i, ringLine[r], ringColumn[r],
+            "expected the output to end with "+show(tail)+" but found "+show(tailText(start)));
+        }
+      }
+      return Optional.empty();
+    }
+    private void accept(char c){
+      int before= segment;
+      if (segment == last && last > 0){ keep(c); }
+      else if (segment == 0){ compare(c); }
+      else { search(c); }
+      offset++;
+      if (c == '\n'){ line++; column= 1; } else { column++; }
+      if (segment != before){ searchFrom= offset; searchLine= line; searchColumn= column; }
+    }
+    private void compare(char c){
+      var s= segments.get(0);
+      if (matched == s.length()){ failed= new Mismatch(offset, line, column, "unexpected "+show(c+"")+", the output should have ended"); return; }
+      if (c != s.charAt(matched)){ failed= new Mismatch(offset, line, column, "expected "+show(s.charAt(matched)+"")+" but was "+show(c+"")); return; }
+      matched++;
+      if (matched == s.length() && last > 0){ next(); }
+    }
+    private void search(char c){
+      var s= segments.get(segment);
+      var f= failures[segment];
+      while (matched > 0 && c != s.charAt(matched)){ matched= f[matched - 1]; }
+      if (c == s.charAt(matched)){ matched++; }
+      if (matched == s.length()){ next(); }
+    }
+    private void keep(char c){
+      if (ring.length > 0){
+        int r= (int)(inTail % ring.length);
+        ring[r]= c; ringLine[r]= line; ringColumn[r]= column;
+      }
+      inTail++;
+    }
+    private void next(){
+      segment++;
+      matched= 0;
+      skipEmptyMiddles();
+    }
+    private void skipEmptyMiddles(){
+      if (segment == 0 && segments.get(0).isEmpty() && last > 0){ segment= 1; }
+      while (segment > 0 && segment < last && segments.get(segment).isEmpty()){ segment++; }
+    }
+    private String tailText(int start){
+      var res= new StringBuilder();
+      for (int i= 0; i < ring.length; i++){ res.append(ring[(start + i) % ring.length]); }
+      return res.toString();
+    }
+    private Optional<Mismatch> fail(long offset, int line, int column, String message){
+      failed= new Mismatch(offset, line, column, message);
+      return Optional.of(failed);
+    }
+  }
+  //KMP: f[i] is the length of the longest proper border of s[0..i]
+  private static int[] failure(String s){
+    var f= new int[s.length()];
+    for (int i= 1, k= 0; i < s.length(); i++){
+      while (k > 0 && s.charAt(i) != s.charAt(k)){ k= f[k - 1]; }
+      if (s.charAt(i) == s.charAt(k)){ k++; }
+      f[i]= k;
+    }
+    return f;
+  }
+  private static String show(String s){
+    var shown= s.length() > 60 ? s.substring(0, 60) + "..." : s;
+    return "\"" + shown.replace("\n", "\\n") + "\"";
+  }
+}
@@ -0,0 +1,53 @@
+package testHelpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+class ExpectedOutputTest {
+  static void matches(String expected, String actual){
+    assertEquals(Optional.empty(), ExpectedOutput.compile(expected).match(actual), expected+" ~ "+actual);
+  }
+  static ExpectedOutput.Mismatch fails(String expected, String actual){
+    var m= ExpectedOutput.compile(expected).match(actual);
+    assertTrue(m.isPresent(), expected+" should not match "+actual);
+    return m.get();
+  }
+  @Test void exact(){
+    matches("", "");
+    matches("Hello\nWorld", "Hello\nWorld");
+    var m= fails("Hello\nWorld", "Hello\nWorms");
+    assertEquals(List.of(9L, 2, 4), List.of(m.offset(), m.line(), m.column()));
+    fails("Hello", "Hello!");
+    fails("Hello", "Hell");
+    fails("", "x");
+  }
+  @Test void wildcardAtTheBoundaries(){
+    matches("[###]", "");
+    matches("[###]", "anything\nat all");
+    matches("[###]/_test/_rank_app111.fear", "C:/x/_test/_rank_app111.fear");
+    matches("[###]/_test/_rank_app111.fear", "/_test/_rank_app111.fear");
+    matches("In file: [###]", "In file: ");
+    matches("In file: [###]", "In file: C:/x\nmore");
+    matches("[###][###]", "ab");
+    matches("a[###][###]b", "ab");
+    fails("[###]/_test/_rank_app111.fear", "C:/x/_test/_rank_app111.fear\n");
+    fails("In file: [###]", "In fil: C:/x");
+  }
+  @Test void wildcardsInTheMiddle(){
+    matches("In file: [###]/_test/_rank_app111.fear\nerror [###] here", "In file: C:/x/_test/_rank_app111.fear\nerror at 3:4 here");
+    matches("a[###]b[###]c", "abc");
+    matches("a[###]aab[###]c", "aaabaabc");
+    matches("ab[###]ab", "abab");
+    fails("ab[###]ab", "aba");//the tail cannot reuse the head
+    fails("a[###]b[###]c", "acb");
+    var m= fails("x[###]needle[###]y", "x\nhay\nstack y");
+    assertEquals(List.of(1L, 1, 2), List.of(m.offset(), m.line(), m.column()));
+    var end= fails("a[###]end", "a\nthe bend\nx");
+    assertEquals(List.of(9L, 2, 8), List.of(end.offset(), end.line(), end.column()));
+  }
+}
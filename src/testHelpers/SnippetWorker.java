@@ -0,0 +1,60 @@
+package testHelpers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+//Main of the worker JVMs started by WorkerPool. Stdin/stdout carry the protocol:
+//  request:  fileName, code
+//  response: status (ok/crashed), then out and err or the crash description
+//strings are an int length followed by that many UTF-8 bytes. Anything the
+//Fearless runtime prints goes to stderr, so it cannot corrupt the protocol.
+public class SnippetWorker {
+  static final byte ready= 1, ok= 0, crashed= 2;
+
+  public static void main(String[] args) throws IOException{
+    var in= new DataInputStream(new BufferedInputStream(new FileInputStream(FileDescriptor.in)));
+    var out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+    System.setOut(System.err);
+    var dir= TourHelper.out.resolve("worker" + ProcessHandle.current().pid());
+    TourHelper.runIn(dir, ()->TourHelper.runHere("_test/_rank_app111.fear", TourHelper.warmupCode));
+    out.writeByte(ready);
+    out.flush();
+    while (true){
+      String fileName;
+      String code;
+      try { fileName= readString(in); code= readString(in); }
+      catch (EOFException e){ return; }
+      var res= new TourHelper.Outcome[1];
+      try { TourHelper.runIn(dir, ()->res[0]= TourHelper.runHere(fileName, code)); }
+      catch (Throwable t){
+        out.writeByte(crashed);
+        writeString(out, t.toString());
+        out.flush();
+        if (t instanceof Error){ System.exit(1); }//the JVM state is not to be trusted any more
+        continue;
+      }
+      out.writeByte(ok);
+      writeString(out, res[0].out());
+      writeString(out, res[0].err());
+      out.flush();
+    }
+  }
+  static String readString(DataInputStream in) throws IOException{
+    var bytes= new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+  static void writeString(DataOutputStream out, String s) throws IOException{
+    var bytes= s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+}
@@ -3,67 +3,141 @@ package testHelpers;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.Semaphore;
 import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Assertions;
 import org.opentest4j.AssertionFailedError;
 
-import markDownTests.TextTag;
+import markDownTests.Expectation;
+import markDownTests.Log;
+import markDownTests.Metrics;
+import markDownTests.SnippetManifest;
 import utils.Err;
 
 public class TourHelper {
   static{ Err.setUp(AssertionFailedError.class, Assertions::assertEquals, Assertions::assertTrue); }
   protected static void strCmp(String expected, String got){ Err.strCmp(expected, got); }
+  //expected may hold [###] wildcards; see ExpectedOutput.
+  static void outputCmp(String what, String expected, String got){
+    ExpectedOutput.compile(expected).match(got).ifPresent(m->{
+      throw new AssertionFailedError(what+" differs at "+m, expected, got);
+    });
+  }
   private static Path prefix=Path.of("C:\\").resolve("Users","Lardo","OneDrive","Documents","GitHub");
   static public final Path std= prefix.resolve("StandardLibrary","fearlessArtefact","fearless","app","stdLib");
   static public final Path stdBase= std.resolve("base");
   static public final Path stdRt= std.resolve("rt");
   static public final Path out= Path.of("tmpOut");
+  static public final Path tour= Path.of("src","chaptersOfZeroToHero");
+  //At most one compilation per core for the runner's virtual mode, where nothing else bounds them.
+  //runFearless checks, writes and runs a snippet in one call, so the slot covers its I/O too: virtual
+  //threads only queue here instead of in a pool, and are not expected to beat the platform mode.
+  //Fair, so that waiting snippets get slots in the order they asked: the runner's longest first order.
+  //JUnit, the platform mode and worker JVMs already bound their concurrency and do not take slots.
+  static final Semaphore compilations= new Semaphore(Runtime.getRuntime().availableProcessors(), true);
+  static final Metrics.Counter compiled= Metrics.global.counter("tour_snippets_compiled_total", "Snippets compiled and run");
+  static final Metrics.Gauge running= Metrics.global.gauge("tour_compilations_running", "Compilations currently running");
+  static final Metrics.Histogram compileTime= Metrics.global.histogram("tour_compile_seconds", "Time to compile and run one snippet");
+  static final Metrics.Histogram compileWait= Metrics.global.histogram("tour_compile_wait_seconds", "Time spent waiting for a compilation slot");
+  //Concurrent snippets must not share an output folder; the runner gives each its own.
+  private static final ThreadLocal<Path> outDir= ThreadLocal.withInitial(()->out);
+  private static final ThreadLocal<long[]> waited= ThreadLocal.withInitial(()->new long[1]);
+  //returns the nanoseconds r spent waiting for a compilation slot
+  static long runIn(Path dir, Runnable r){
+    outDir.set(dir);
+    waited.set(new long[1]);
+    try { r.run(); return waited.get()[0]; }
+    finally { outDir.remove(); waited.remove(); }
+  }
+
+  static final String warmupCode= """
+    use base.Main as Main;
+    Test:Main {sys -> base.Debug#(`Hello, World!`)}
+    """;
+  static{ if (Boolean.getBoolean("tour.warmup")){ startWarmup(); } }
+  //Forces the static initializers above; see TourWarmup.
+  static void init(){}
+  //Loads and JIT compiles the Fearless compiler on a snippet nobody waits for.
+  private static void startWarmup(){
+    Thread.ofPlatform().daemon().name("fearless-warmup").start(()->{
+      var m= new mainCoordinator.ProgrammaticMain(
+        new StringBuilder(),new StringBuilder(),
+        "_test/_rank_app111.fear",warmupCode,
+        stdBase,stdRt,out.resolve("warmup")
+        );
+      try { compile(m); }
+      catch (RuntimeException e){ Log.warn("Warm-up failed: "+e); }
+    });
+  }
 
-  public static void run(String code){
-    String expectedPrint= printRequirement(code);
-    String expectedErr= errRequirement(code);
-    if (noMain(code)){ code += "\nSomeAnonMain:base.Main{s->base.Void}\n"; }
+  public record Outcome(String out, String err){}
+  //How a snippet gets compiled and run: here by default, or in a worker JVM (see WorkerPool).
+  public interface Fearless{ Outcome run(String fileName, String code); }
+  static final Fearless inProcess= TourHelper::runHere;
+  static final Fearless bounded= TourHelper::runBounded;
+  static Outcome runHere(String fileName, String code){
     var m= new mainCoordinator.ProgrammaticMain(
       new StringBuilder(),new StringBuilder(),
-      "_test/_rank_app111.fear",code,
-      stdBase,stdRt,out
+      fileName,code,
+      stdBase,stdRt,outDir.get()
       );
-    m.runFearless();
-    System.err.println("Err was: "+m.err());
-    System.out.println("Out was: "+m.out());
+    compile(m);
+    return new Outcome(m.out().toString(), m.err().toString());
+  }
+  static Outcome runBounded(String fileName, String code){
+    long start= System.nanoTime();
+    compilations.acquireUninterruptibly();
+    long acquired= System.nanoTime();
+    waited.get()[0] += acquired - start;
+    compileWait.observe(acquired - start);
+    try { return runHere(fileName, code); }
+    finally { compilations.release(); }
+  }
+  public static void run(String code){ run(inProcess, caller(), code); }
+  //Tour snippets are @Test methods calling run: their id is the simple class name and the method name.
+  private static final StackWalker walker= StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+  static String caller(){
+    return walker.walk(frames->frames.filter(f->f.getDeclaringClass() != TourHelper.class).findFirst())
+      .map(f->f.getDeclaringClass().getSimpleName()+"."+f.getMethodName()).orElse("");
+  }
+  //Generated with SnippetManifest (CompileHtml does it too); snippets missing from it or edited since are derived on the spot.
+  static final SnippetManifest manifest= SnippetManifest.loadOrEmpty(SnippetManifest.standardFile);
+  static Expectation expectation(String id, String code){
+    return manifest.expectation(id, code).orElseGet(()->Expectation.of(code));
+  }
+  static void run(Fearless fearless, String id, String code){
+    var expected= expectation(id, code);
+    String expectedPrint= expected.print();
+    String expectedErr= expected.err();
+    if (!expected.hasMain()){ code += "\nSomeAnonMain:base.Main{s->base.Void}\n"; }
+    var o= fearless.run("_test/_rank_app111.fear",code);
+    Log.debug(()->"Err was: "+o.err());
+    Log.debug(()->"Out was: "+o.out());
     //var a=strView(expectedPrint+"\n");
-    //var b=strView(m.out().toString());
+    //var b=strView(o.out());
     //assertEquals(a,b);
-    strCmp(expectedErr, m.err().toString());
-    //assertEquals(expectedPrint.length(), m.out().length());//+1 for new line
-    strCmp("||"+expectedPrint+"||", "||"+m.out().toString()+"||");
+    outputCmp("Error output", expectedErr, o.err());
+    //assertEquals(expectedPrint.length(), o.out().length());//+1 for new line
+    outputCmp("Printed output", expectedPrint, o.out());
+  }
+  private static void compile(mainCoordinator.ProgrammaticMain m){
+    long start= System.nanoTime();
+    running.add(1);
+    try { m.runFearless(); }
+    finally {
+      running.add(-1);
+      compileTime.observe(System.nanoTime() - start);
+      compiled.inc();
+    }
   }
   static List<Byte> strView(String str){
     byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
     return IntStream.range(0, bytes.length)
       .mapToObj(i -> bytes[i]).toList();
   }
-  static boolean noMain(String content){
-    return List.of(":Main",": Main",":TestMain",": TestMain")
-      .stream().noneMatch(e->content.contains(e));
-  }
-  private static String printRequirement(String text){ return tagRequirement(text,TextTag.PrintReq); }
-  private static String errRequirement(String text){ return tagRequirement(text,TextTag.ErrorReq); }
-
-  private static String tagRequirement(String text,TextTag tag){
-    return text.lines()
-      .filter(l->l.startsWith(tag.token()))
-      .map(l->l.substring(tag.token().length())+"\n")
-      .collect(Collectors.joining());
-  }
-  public static void run(String pkgName, String rank, String code){
-    var m= new mainCoordinator.ProgrammaticMain(
-      new StringBuilder(),new StringBuilder(),
-      "_"+pkgName+"/"+rank+".fear",code,
-      stdBase,stdRt,out
-      );
-    m.runFearless();
+  public static void run(String pkgName, String rank, String code){ run(inProcess, pkgName, rank, code); }
+  static void run(Fearless fearless, String pkgName, String rank, String code){
+    fearless.run("_"+pkgName+"/"+rank+".fear",code);
   }
 }
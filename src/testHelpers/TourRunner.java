@@ -0,0 +1,121 @@
+package testHelpers;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import markDownTests.Metrics;
+import markDownTests.PerfStore;
+import markDownTests.Snippet;
+import markDownTests.SourceMap;
+
+//Runs the tour snippets outside of JUnit, on either a fixed pool of platform threads
+//(what JUnit parallel execution uses), one virtual thread per snippet, or a pool of worker JVMs.
+//  -Dtour.runner=platform|virtual|workers|compare (default platform), TOUR_SHARD=k/n to run one shard (see TourShards)
+//  -Dtour.workerRuns=50 snippets before a worker JVM is recycled
+//  -Dtour.select=changed to only run the chapters edited since the last passing run
+public class TourRunner {
+  public enum Mode{ platform, virtual, workers;
+    ExecutorService executor(){
+      return switch (this){
+        case platform, workers -> Executors.newFixedThreadPool(cores);
+        case virtual -> Executors.newVirtualThreadPerTaskExecutor();
+      };
+    }
+  }
+  static final int cores= Runtime.getRuntime().availableProcessors();
+  public record Result(Snippet snippet, long nanos, Throwable failure){
+    public boolean ok(){ return failure == null; }
+  }
+  public record Report(Mode mode, long wallNanos, List<Result> results){
+    public long failures(){ return results.stream().filter(r->!r.ok()).count(); }
+    public long cpuNanos(){ return results.stream().mapToLong(Result::nanos).sum(); }
+    public String summary(){
+      return String.format("%-8s %4d snippets  %3d failed  wall %8.1f ms  sum %9.1f ms",
+        mode, results.size(), failures(), wallNanos / 1e6, cpuNanos() / 1e6);
+    }
+  }
+  public static void main(String[] args){
+    long scan= System.nanoTime();
+    var all= Snippet.scanAll(TourHelper.tour);
+    var snippets= longestFirst(TourShards.filter(TourSelection.select(all)));
+    scan= System.nanoTime() - scan;
+    System.out.println("running "+snippets.size()+" of "+all.size()+" snippets");
+    var mode= System.getProperty("tour.runner", Mode.platform.name());
+    List<Report> reports= mode.equals("compare")
+      ? List.of(run(snippets, Mode.platform), run(snippets, Mode.virtual))
+      : List.of(run(snippets, Mode.valueOf(mode)));
+    var map= SourceMap.build(TourHelper.tour);
+    reports.forEach(r->r.results().stream().filter(x->!x.ok())
+      .forEach(x->System.err.println("FAILED "+x.snippet().id()
+        +map.sectionOf(x.snippet().id()).map(sec->" (section "+sec.key()+" "+sec.title()+")").orElse("")
+        +": "+x.failure())));
+    reports.forEach(r->System.out.println(r.summary()));
+    if (reports.size() == 2){
+      System.out.printf("speedup %.2fx%n", reports.get(0).wallNanos() / (double)reports.get(1).wallNanos());
+    }
+    var last= reports.getLast();
+    saveTimings(last);
+    TourSelection.record(all, last.results());
+    var stages= new LinkedHashMap<String,Long>();
+    stages.put("tour.scan", scan);
+    reports.forEach(r->stages.put("tour.run."+r.mode(), r.wallNanos()));
+    PerfStore.standard().append("stage", stages);
+    Metrics.global.stages(stages);
+    Metrics.global.export(TourHelper.out.resolve("metrics").resolve("tour.prom"));
+    if (last.failures() != 0){ System.exit(1); }
+  }
+  //A heavy snippet started last leaves the other cores idle at the tail: start the longest first.
+  //Without history the duration is estimated from the snippet size. -Dtour.order=source disables it.
+  static List<Snippet> longestFirst(List<Snippet> snippets){
+    if (System.getProperty("tour.order", "longest").equals("source")){ return snippets; }
+    var durations= TourShards.estimates(snippets, loadTimings());
+    return snippets.stream()
+      .sorted(Comparator.comparing((Snippet s)->durations.get(s.id())).reversed().thenComparing(Snippet::id))
+      .toList();
+  }
+  public static Report run(List<Snippet> snippets, Mode mode){
+    if (mode != Mode.workers){ return run(snippets, mode, mode == Mode.virtual ? TourHelper.bounded : TourHelper.inProcess); }
+    try (var pool= new WorkerPool(cores, Integer.getInteger("tour.workerRuns", 50))){
+      return run(snippets, mode, pool);
+    }
+  }
+  static Report run(List<Snippet> snippets, Mode mode, TourHelper.Fearless fearless){
+    long start= System.nanoTime();
+    List<Future<Result>> futures;
+    try (var executor= mode.executor()){
+      futures= snippets.stream().map(s->executor.submit(()->runOne(s, fearless))).toList();
+    }
+    var results= futures.stream().map(TourRunner::get).toList();
+    return new Report(mode, System.nanoTime() - start, results);
+  }
+  //nanos excludes the time spent queuing for a compilation slot
+  static Result runOne(Snippet s, TourHelper.Fearless fearless){
+    long start= System.nanoTime();
+    try {
+      long waited= TourHelper.runIn(TourHelper.out.resolve(s.id()), ()->run(s, fearless));
+      return new Result(s, System.nanoTime() - start - waited, null);
+    }
+    catch (Throwable t){ return new Result(s, System.nanoTime() - start, t); }
+  }
+  static void run(Snippet s, TourHelper.Fearless fearless){
+    if (s.args().isEmpty()){ TourHelper.run(fearless, s.id(), s.code()); return; }
+    TourHelper.run(fearless, s.args().get(0), s.args().get(1), s.code());
+  }
+  private static Result get(Future<Result> f){
+    try { return f.get(); }
+    catch (InterruptedException e){ Thread.currentThread().interrupt(); throw new IllegalStateException(e); }
+    catch (ExecutionException e){ throw new IllegalStateException(e.getCause()); }
+  }
+  static Map<String,Long> loadTimings(){ return PerfStore.standard().latest("snippet"); }
+  static void saveTimings(Report r){
+    var nanos= new LinkedHashMap<String,Long>();
+    r.results().stream().filter(Result::ok).forEach(x->nanos.put(x.snippet().id(), x.nanos()));
+    PerfStore.standard().append("snippet", nanos);
+  }
+}
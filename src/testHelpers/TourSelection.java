@@ -0,0 +1,98 @@
+package testHelpers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import markDownTests.Hashes;
+import markDownTests.Snippet;
+
+//With -Dtour.select=changed only the snippets of chapter files whose content changed since the
+//last passing run are executed; everything runs if the standard library or the runner code (below)
+//changed. The snippet manifest needs no hash of its own: it is ignored unless derived by the
+//current Expectation code, so it gives the results Expectation.of would.
+//The content hashes of the last passing run are kept in tmpOut/lastGreen.tsv.
+public class TourSelection {
+  public static final Path state= TourHelper.out.resolve("lastGreen.tsv");
+  //Sources deciding how a snippet runs and what output it must give: all of testHelpers, and the
+  //markDownTests classes they use to find snippets and read their expectations.
+  static final Path helpers= Path.of("src","testHelpers");
+  static final List<Path> runPath= List.of("Expectation", "LoadFile", "Snippet", "SnippetManifest", "TextTag").stream()
+    .map(c->Path.of("src","markDownTests",c+".java")).toList();
+  static final String stdBaseKey= "<stdBase>", stdRtKey= "<stdRt>", helperKey= "<testHelpers>", runPathKey= "<runPath>";
+
+  public static boolean enabled(){ return System.getProperty("tour.select", "all").equals("changed"); }
+
+  public static List<Snippet> select(List<Snippet> snippets){
+    if (!enabled()){ return snippets; }
+    var green= load();
+    var now= globalHashes();
+    boolean globalChange= now.entrySet().stream().anyMatch(e->!e.getValue().equals(green.get(e.getKey())));
+    if (globalChange){ return snippets; }
+    var fileHashes= new HashMap<Path,String>();
+    return snippets.stream()
+      .filter(s->!fileHashes.computeIfAbsent(s.file(), TourSelection::hash).equals(green.get(s.file().toString())))
+      .toList();
+  }
+  //Remembers as green the files whose snippets all ran and passed; the global inputs only when
+  //every snippet of the tour ran and passed.
+  public static void record(List<Snippet> all, List<TourRunner.Result> results){
+    var green= new TreeMap<>(load());
+    var ran= results.stream().collect(Collectors.toMap(r->r.snippet().id(), TourRunner.Result::ok));
+    var byFile= all.stream().collect(Collectors.groupingBy(Snippet::file));
+    byFile.forEach((file, snippets)->{
+      boolean passed= snippets.stream().allMatch(s->ran.getOrDefault(s.id(), false));
+      if (passed){ green.put(file.toString(), hash(file)); }
+    });
+    boolean allPassed= all.stream().allMatch(s->ran.getOrDefault(s.id(), false));
+    if (allPassed){ green.putAll(globalHashes()); }
+    save(green);
+  }
+  static Map<String,String> globalHashes(){
+    return Map.of(
+      stdBaseKey, treeHash(TourHelper.stdBase),
+      stdRtKey, treeHash(TourHelper.stdRt),
+      helperKey, treeHash(helpers),
+      runPathKey, Hashes.sha256(runPath.stream().map(p->p+"="+(Files.exists(p) ? hash(p) : "")).collect(Collectors.joining("\n"))));
+  }
+  static String hash(Path file){
+    try { return Hashes.sha256(Files.readAllBytes(file)); }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  //Hash of every (relative path, content hash) pair, so renames and deletions count as changes.
+  static String treeHash(Path root){
+    if (!Files.exists(root)){ return ""; }
+    try (var files= Files.walk(root)){
+      return Hashes.sha256(files.filter(Files::isRegularFile)
+        .sorted(Comparator.comparing(Path::toString))
+        .map(p->root.relativize(p)+"="+hash(p))
+        .collect(Collectors.joining("\n")));
+    }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  static Map<String,String> load(){
+    if (!Files.exists(state)){ return Map.of(); }
+    try (var lines= Files.lines(state)){
+      return lines.filter(l->!l.isBlank()).map(l->l.split("\t", -1))
+        .collect(Collectors.toMap(p->p[0], p->p[1], (a,b)->b));
+    }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  static void save(Map<String,String> green){
+    var text= green.entrySet().stream()
+      .map(e->e.getKey()+"\t"+e.getValue())
+      .collect(Collectors.joining("\n", "", "\n"));
+    try {
+      Files.createDirectories(state.getParent());
+      Files.writeString(state, text);
+    }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+}
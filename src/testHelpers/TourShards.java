@@ -0,0 +1,102 @@
+package testHelpers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import markDownTests.Log;
+import markDownTests.Snippet;
+
+//Splits the snippets across CI nodes, balancing the recorded durations (longest first, onto the
+//least loaded shard). Run main with the node count to write the assignment; each node then runs
+//TourRunner with TOUR_SHARD=k/n (k from 1 to n) and only executes its own snippets.
+public class TourShards {
+  public static final Path assignments= TourHelper.out.resolve("shards.tsv");
+
+  public static void main(String[] args){
+    int nodes= Integer.parseInt(args[0]);
+    var snippets= Snippet.scanAll(TourHelper.tour);
+    var durations= estimates(snippets, TourRunner.loadTimings());
+    var shards= assign(snippets, durations, nodes);
+    save(shards);
+    long[] loads= new long[nodes];
+    shards.forEach((id, k)->loads[k] += durations.get(id));
+    long total= durations.values().stream().mapToLong(Long::longValue).sum();
+    for (int k= 0; k < nodes; k++){ System.out.printf("shard %d/%d  %8.1f ms%n", k + 1, nodes, loads[k] / 1e6); }
+    System.out.printf("makespan %.1f ms, ideal %.1f ms%n",
+      IntStream.range(0, nodes).mapToLong(k->loads[k]).max().orElse(0) / 1e6, total / 1e6 / nodes);
+  }
+  //Snippets without history are estimated from their size, at the average recorded nanos per char.
+  static Map<String,Long> estimates(List<Snippet> snippets, Map<String,Long> history){
+    var known= snippets.stream().filter(s->history.containsKey(s.id())).toList();
+    long chars= known.stream().mapToLong(s->s.code().length()).sum();
+    long nanos= known.stream().mapToLong(s->history.get(s.id())).sum();
+    double perChar= chars == 0 ? 1 : nanos / (double)chars;
+    var res= new HashMap<String,Long>();
+    for (var s : snippets){ res.put(s.id(), history.getOrDefault(s.id(), (long)(s.code().length() * perChar))); }
+    return res;
+  }
+  static Map<String,Integer> assign(List<Snippet> snippets, Map<String,Long> durations, int nodes){
+    record Load(int shard, long nanos){}
+    var loads= new PriorityQueue<Load>(Comparator.comparingLong(Load::nanos).thenComparingInt(Load::shard));
+    for (int k= 0; k < nodes; k++){ loads.add(new Load(k, 0)); }
+    var res= new HashMap<String,Integer>();
+    snippets.stream()
+      .sorted(Comparator.comparing((Snippet s)->durations.get(s.id())).reversed().thenComparing(Snippet::id))
+      .forEach(s->{
+        var l= loads.poll();
+        res.put(s.id(), l.shard());
+        loads.add(new Load(l.shard(), l.nanos() + durations.get(s.id())));
+      });
+    return res;
+  }
+  static void save(Map<String,Integer> shards){
+    var tsv= shards.entrySet().stream()
+      .sorted(Map.Entry.comparingByKey())
+      .map(e->e.getValue()+"\t"+e.getKey())
+      .collect(Collectors.joining("\n", "", "\n"));
+    try {
+      Files.createDirectories(assignments.getParent());
+      Files.writeString(assignments, tsv);
+    }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  static Map<String,Integer> load(Path file){
+    try (var lines= Files.lines(file)){
+      return lines.filter(l->!l.isBlank()).map(l->l.split("\t"))
+        .collect(Collectors.toMap(p->p[1], p->Integer.parseInt(p[0])));
+    }
+    catch (IOException e){ throw new UncheckedIOException(e); }
+  }
+  //TOUR_SHARD=k/n keeps the snippets of shard k. Every node must agree on the assignment, so it only
+  //comes from the shared file; local timings and selections differ between nodes. Without the file,
+  //and for snippets added after it was written, the shard is the hash of the snippet id.
+  public static List<Snippet> filter(List<Snippet> snippets){
+    var shard= System.getenv("TOUR_SHARD");
+    if (shard == null || shard.isBlank()){ return snippets; }
+    var parts= shard.trim().split("/");
+    int k= Integer.parseInt(parts[0]) - 1;
+    int n= Integer.parseInt(parts[1]);
+    if (k < 0 || k >= n){ throw new IllegalArgumentException("TOUR_SHARD must be k/n with 1<=k<=n, was "+shard); }
+    var file= Path.of(System.getenv().getOrDefault("TOUR_SHARDS", assignments.toString()));
+    boolean assigned= Files.exists(file);
+    if (!assigned){ Log.warn("No shard assignment "+file+", splitting by snippet id; run TourShards "+n+" to balance the shards"); }
+    var shards= assigned ? load(file) : Map.<String,Integer>of();
+    //with at least n snippets, every shard gets one: a file for n nodes uses exactly 0..n-1
+    int nodes= shards.values().stream().mapToInt(v->v + 1).max().orElse(n);
+    if (nodes > n || (nodes < n && shards.size() >= n)){
+      throw new IllegalStateException(file+" was written for "+nodes+" nodes but TOUR_SHARD is "+shard+"; run TourShards "+n);
+    }
+    return snippets.stream()
+      .filter(s->shards.getOrDefault(s.id(), Math.floorMod(s.id().hashCode(), n)) == k)
+      .toList();
+  }
+}
@@ -0,0 +1,31 @@
+package testHelpers;
+
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.discovery.ClassSelector;
+import org.junit.platform.engine.discovery.MethodSelector;
+import org.junit.platform.engine.discovery.PackageSelector;
+import org.junit.platform.engine.discovery.UniqueIdSelector;
+import org.junit.platform.launcher.LauncherDiscoveryListener;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+
+//Called before test discovery: initializing TourHelper here lets its warm-up overlap discovery
+//instead of the first test. Only with -Dtour.warmup=true and a request that may select tour classes,
+//so other test runs neither load TourHelper nor start the compiler.
+public class TourWarmup implements LauncherDiscoveryListener {
+  static final String tour= "chaptersOfZeroToHero";
+  @Override public void launcherDiscoveryStarted(LauncherDiscoveryRequest request){
+    if (Boolean.getBoolean("tour.warmup") && selectsTour(request)){ TourHelper.init(); }
+  }
+  static boolean selectsTour(LauncherDiscoveryRequest request){
+    return request.getSelectorsByType(DiscoverySelector.class).stream().anyMatch(TourWarmup::selectsTour);
+  }
+  static boolean selectsTour(DiscoverySelector selector){
+    return switch (selector){
+      case ClassSelector c -> c.getClassName().startsWith(tour+".");
+      case MethodSelector m -> m.getClassName().startsWith(tour+".");
+      case PackageSelector p -> p.getPackageName().equals(tour) || p.getPackageName().isEmpty();
+      case UniqueIdSelector u -> u.getUniqueId().toString().contains(tour+".");
+      default -> true;//class path roots, modules, directories: may hold the tour
+    };
+  }
+}
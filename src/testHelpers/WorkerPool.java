@@ -0,0 +1,130 @@
+package testHelpers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+//Long lived worker JVMs running snippets one at a time, so that a snippet exhausting memory
+//or corrupting static state takes down one worker and not the whole run. Workers warm up as
+//soon as they start and are replaced after maxRuns snippets, or as soon as one crashes.
+//  -Dtour.workerJvmArgs="-Xmx512m ..." is passed to every worker.
+public class WorkerPool implements TourHelper.Fearless, AutoCloseable {
+  private final int maxRuns;
+  private final BlockingQueue<Worker> idle= new LinkedBlockingQueue<>();
+  private final List<Worker> all= new ArrayList<>();
+  private boolean closed= false;
+
+  public WorkerPool(int size, int maxRuns){
+    this.maxRuns= maxRuns;
+    for (int i= 0; i < size; i++){ idle.add(spawn()); }
+  }
+  @Override public TourHelper.Outcome run(String fileName, String code){
+    var w= take();
+    try {
+      var res= w.run(fileName, code);
+      if (++w.runs >= maxRuns){ replace(w); } else { idle.add(w); }
+      return res;
+    }
+    catch (IOException e){
+      replace(w);
+      throw new IllegalStateException("Worker JVM died running "+fileName, e);
+    }
+    catch (RuntimeException e){
+      replace(w);
+      throw e;
+    }
+  }
+  private Worker take(){
+    try { return idle.take(); }
+    catch (InterruptedException e){
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+  private synchronized Worker spawn(){
+    if (closed){ throw new IllegalStateException("WorkerPool closed"); }
+    var w= Worker.start();
+    all.add(w);
+    return w;
+  }
+  private void replace(Worker w){
+    w.destroy();
+    w.awaitExit();
+    synchronized (this){ all.remove(w); }
+    idle.add(spawn());
+  }
+  @Override public synchronized void close(){
+    closed= true;
+    all.forEach(Worker::destroy);
+    all.forEach(Worker::awaitExit);
+    all.clear();
+  }
+
+  private static final class Worker {
+    static final Duration exitTimeout= Duration.ofSeconds(2);
+    final Process process;
+    final DataOutputStream in;
+    final DataInputStream out;
+    boolean warm= false;
+    int runs= 0;
+    private Worker(Process process){
+      this.process= process;
+      this.in= new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+      this.out= new DataInputStream(new BufferedInputStream(process.getInputStream()));
+    }
+    static Worker start(){
+      try {
+        return new Worker(new ProcessBuilder(command())
+          .redirectError(ProcessBuilder.Redirect.INHERIT)
+          .start());
+      }
+      catch (IOException e){ throw new IllegalStateException("Cannot start a worker JVM", e); }
+    }
+    static List<String> command(){
+      List<String> cmd= new ArrayList<>();
+      cmd.add(ProcessHandle.current().info().command().orElse("java"));
+      var jvmArgs= System.getProperty("tour.workerJvmArgs", "").trim();
+      if (!jvmArgs.isEmpty()){ cmd.addAll(List.of(jvmArgs.split("\\s+"))); }
+      var modulePath= System.getProperty("jdk.module.path");
+      if (modulePath != null){
+        cmd.addAll(List.of("-p", modulePath, "-m", WorkerPool.class.getModule().getName()+"/"+SnippetWorker.class.getName()));
+        return cmd;
+      }
+      cmd.addAll(List.of("-cp", System.getProperty("java.class.path"), SnippetWorker.class.getName()));
+      return cmd;
+    }
+    TourHelper.Outcome run(String fileName, String code) throws IOException{
+      if (!warm){
+        if (out.readByte() != SnippetWorker.ready){ throw new IOException("Worker handshake failed"); }
+        warm= true;
+      }
+      SnippetWorker.writeString(in, fileName);
+      SnippetWorker.writeString(in, code);
+      in.flush();
+      var status= out.readByte();
+      if (status == SnippetWorker.crashed){
+        throw new IllegalStateException("Snippet crashed its worker: "+SnippetWorker.readString(out));
+      }
+      return new TourHelper.Outcome(SnippetWorker.readString(out), SnippetWorker.readString(out));
+    }
+    void destroy(){
+      try { in.close(); }
+      catch (IOException e){ /*already dead*/ }
+      process.destroy();
+    }
+    //A worker stuck in a snippet may ignore destroy(): killed if not gone after exitTimeout.
+    void awaitExit(){
+      try { if (process.waitFor(exitTimeout.toMillis(), TimeUnit.MILLISECONDS)){ return; } }
+      catch (InterruptedException e){ Thread.currentThread().interrupt(); }
+      process.destroyForcibly();
+    }
+  }
+}